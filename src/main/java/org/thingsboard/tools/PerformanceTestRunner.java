@@ -42,7 +42,9 @@ public class PerformanceTestRunner implements ApplicationRunner {
         testExecutor.runTest();
 
         log.info("Application is shutting down");
+        // exit code generator beans, e.g. the regression gate, turn the result of the run into the exit code
         int exitCode = SpringApplication.exit(ctx, () -> 0);
+        log.info("Exit code: {}", exitCode);
         System.exit(exitCode);
     }
 
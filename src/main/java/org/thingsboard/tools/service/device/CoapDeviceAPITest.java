@@ -0,0 +1,260 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.device;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.coap.MessageObserverAdapter;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.elements.AddressEndpointContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.common.data.id.IdBased;
+import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.shared.AbstractAPITest;
+import org.thingsboard.tools.service.shared.TestIteration;
+import org.thingsboard.tools.service.stats.LatencyStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Plain CoAP device API. The simulated devices share a few UDP endpoints, every request carries the access token of
+ * its device in the URI path, so the server does not need a separate endpoint per device.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "device", value = "api", havingValue = "COAP")
+public class CoapDeviceAPITest extends AbstractAPITest implements DeviceAPITest {
+
+    @Value("${coap.host:localhost}")
+    private String coapHost;
+    @Value("${coap.port:5683}")
+    private int coapPort;
+    @Value("${coap.endpoints:4}")
+    private int endpointCount;
+    @Value("${coap.confirmable:true}")
+    private boolean confirmable;
+    @Value("${coap.ackTimeoutMs:2000}")
+    private int ackTimeoutMs;
+    @Value("${coap.maxRetransmit:4}")
+    private int maxRetransmit;
+
+    private final LatencyStats ackStats = new LatencyStats("CoAP ACK", "us");
+    private final AtomicLong retransmissions = new AtomicLong();
+    private final List<CoapEndpoint> endpoints = new ArrayList<>();
+    private AddressEndpointContext serverContext;
+    private Set<String> iterationDevices = new HashSet<>();
+    private long lastRetransmissions;
+
+    @PostConstruct
+    public void init() {
+        super.init();
+        this.deviceCount = this.deviceEndIdx - this.deviceStartIdx;
+        serverContext = new AddressEndpointContext(new InetSocketAddress(coapHost, coapPort));
+        if (confirmable) {
+            latencyStats.add(ackStats);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        super.destroy();
+        endpoints.forEach(CoapEndpoint::destroy);
+    }
+
+    @Override
+    public void createDevices() throws Exception {
+        createDevices(true);
+    }
+
+    @Override
+    public void removeDevices() throws Exception {
+        removeEntities(devices.stream().map(IdBased::getId).collect(Collectors.toList()), "devices");
+    }
+
+    @Override
+    public void warmUpDevices() throws InterruptedException {
+    }
+
+    @Override
+    public void connectDevices() {
+        NetworkConfig config = new NetworkConfig();
+        config.setInt(NetworkConfig.Keys.ACK_TIMEOUT, ackTimeoutMs);
+        config.setInt(NetworkConfig.Keys.MAX_RETRANSMIT, maxRetransmit);
+        // every endpoint talks to a single server, tracking the used MIDs for the whole exchange lifetime
+        // would limit it to 65536 messages per EXCHANGE_LIFETIME
+        config.setString(NetworkConfig.Keys.MID_TRACKER, "NULL");
+        for (int i = 0; i < endpointCount; i++) {
+            CoapEndpoint endpoint = new CoapEndpoint.Builder()
+                    .setInetSocketAddress(new InetSocketAddress(0))
+                    .setNetworkConfig(config)
+                    .build();
+            try {
+                endpoint.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to start CoAP endpoint", e);
+            }
+            endpoints.add(endpoint);
+        }
+        log.info("{} simulated devices share {} CoAP endpoints, {} messages", deviceCount, endpointCount,
+                confirmable ? "confirmable" : "non-confirmable");
+    }
+
+    @Override
+    public void runApiTests() throws InterruptedException {
+        super.runApiTests(deviceCount);
+        log.info("Total CoAP retransmissions: {}", retransmissions.get());
+    }
+
+    @Override
+    protected void onIterationStart(TestIteration iteration) {
+        iterationDevices = new HashSet<>();
+        long total = retransmissions.get();
+        log.info("[{}] CoAP retransmissions: {}", iteration.getNumber(), total - lastRetransmissions);
+        lastRetransmissions = total;
+    }
+
+    @Override
+    protected void sendTestMessage(TestIteration iteration, long msgIdx, long intendedNanos) {
+        String deviceName = getDeviceName(iterationDevices, msgIdx);
+        boolean alarmRequired = reserveAlarm(iteration);
+        Msg message = getNextMessage(deviceName, alarmRequired, intendedNanos);
+        onMessageGenerated(iteration, alarmRequired, message);
+        iteration.onSent();
+        Request request = Request.newPost();
+        request.setConfirmable(confirmable);
+        request.setDestinationContext(serverContext);
+        request.getOptions().setUriPath(getTestPath(deviceName));
+        request.getOptions().setContentFormat(MediaTypeRegistry.APPLICATION_JSON);
+        request.setPayload(message.getData());
+        request.addMessageObserver(new RequestObserver(iteration, deviceName, message.getDatapoints(), intendedNanos));
+        endpoints.get((int) (msgIdx % endpoints.size())).sendRequest(request);
+    }
+
+    private String getTestPath(String token) {
+        return "api/v1/" + token + (telemetryTest ? "/telemetry" : "/attributes");
+    }
+
+    @Override
+    public void generationX509() {
+
+    }
+
+    /**
+     * Completes the message once: a CON message on its ACK or piggybacked response, a NON message once it was sent.
+     * The separate response that follows an empty ACK is still checked, an error response turns the message into
+     * a failure. The server does not have to send the separate response in time, so the message is not kept pending
+     * until it arrives.
+     */
+    private class RequestObserver extends MessageObserverAdapter {
+
+        private final TestIteration iteration;
+        private final String deviceName;
+        private final int datapoints;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final long sentNanos = System.nanoTime();
+        private final long intendedNanos;
+
+        RequestObserver(TestIteration iteration, String deviceName, int datapoints, long intendedNanos) {
+            this.iteration = iteration;
+            this.deviceName = deviceName;
+            this.datapoints = datapoints;
+            this.intendedNanos = intendedNanos;
+        }
+
+        @Override
+        public void onSent(boolean retransmission) {
+            if (!confirmable && completed.compareAndSet(false, true)) {
+                iteration.onSuccess(datapoints);
+            }
+        }
+
+        @Override
+        public void onRetransmission() {
+            retransmissions.incrementAndGet();
+        }
+
+        @Override
+        public void onAcknowledgement() {
+            onAcknowledged();
+        }
+
+        @Override
+        public void onResponse(Response response) {
+            if (response.isSuccess()) {
+                onAcknowledged();
+            } else if (!completed.compareAndSet(false, true)) {
+                // separate response after an empty ACK that already completed the message
+                iteration.onFailureAfterSuccess(datapoints);
+                log.error("[{}] Error while publishing message to device: {}, separate response {}", iteration.getNumber(),
+                        deviceName, response.getCode());
+            } else {
+                iteration.onFailure();
+                log.error("[{}] Error while publishing message to device: {}, response {}", iteration.getNumber(),
+                        deviceName, response.getCode());
+            }
+        }
+
+        @Override
+        public void onTimeout() {
+            fail("timeout");
+        }
+
+        @Override
+        public void onReject() {
+            fail("reject");
+        }
+
+        @Override
+        protected void failed() {
+            fail("send error or cancel");
+        }
+
+        private void onAcknowledged() {
+            if (completed.compareAndSet(false, true)) {
+                long completedNanos = System.nanoTime();
+                ackStats.record(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+                ackStats.recordCorrected(TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos));
+                iteration.onSuccess(datapoints);
+                log.debug("[{}] Message was successfully published to device: {}", iteration.getNumber(), deviceName);
+            }
+        }
+
+        private void fail(String reason) {
+            if (completed.compareAndSet(false, true)) {
+                iteration.onFailure();
+                log.error("[{}] Error while publishing message to device: {}, {}", iteration.getNumber(), deviceName, reason);
+            }
+        }
+
+    }
+
+}
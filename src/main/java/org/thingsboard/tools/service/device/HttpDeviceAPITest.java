@@ -23,19 +23,24 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.thingsboard.server.common.data.id.IdBased;
 import org.thingsboard.tools.service.msg.Msg;
 import org.thingsboard.tools.service.shared.AbstractAPITest;
+import org.thingsboard.tools.service.shared.TestIteration;
+import org.thingsboard.tools.service.stats.LatencyStats;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -43,20 +48,64 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(prefix = "device", value = "api", havingValue = "HTTP")
 public class HttpDeviceAPITest extends AbstractAPITest implements DeviceAPITest {
 
+    @Value("${http.protocol:HTTP11}")
+    private HttpProtocol httpProtocol;
+    @Value("${http.pool.maxConnections:500}")
+    private int maxConnections;
+    @Value("${http.pool.pendingAcquireMaxCount:-1}")
+    private int pendingAcquireMaxCount;
+    @Value("${http.pool.pendingAcquireTimeoutMs:45000}")
+    private long pendingAcquireTimeoutMs;
+    @Value("${http.pool.maxIdleTimeMs:30000}")
+    private long maxIdleTimeMs;
+    @Value("${http.pool.maxLifeTimeMs:-1}")
+    private long maxLifeTimeMs;
+    @Value("${http.keepAlive:true}")
+    private boolean keepAlive;
+
+    private final LatencyStats responseStats = new LatencyStats("HTTP", "us");
+    private final HttpPoolMetrics poolMetrics = new HttpPoolMetrics();
+    private ConnectionProvider connectionProvider;
     private WebClient webClient;
+    private Set<String> iterationDevices = new HashSet<>();
 
     @PostConstruct
     public void init() {
         super.init();
         this.deviceCount = this.deviceEndIdx - this.deviceStartIdx;
+        ConnectionProvider.Builder provider = ConnectionProvider.builder("http-device")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true, () -> poolMetrics);
+        if (maxLifeTimeMs > 0) {
+            provider.maxLifeTime(Duration.ofMillis(maxLifeTimeMs));
+        }
+        connectionProvider = provider.build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(keepAlive);
+        httpClient = switch (httpProtocol) {
+            case HTTP11 -> httpClient.protocol(HttpProtocol.HTTP11);
+            // prior knowledge, the server has to accept HTTP/2 over cleartext without an upgrade
+            case H2C -> httpClient.protocol(HttpProtocol.H2C);
+            case H2 -> httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        };
+        log.info("HTTP device clients use {} with at most {} connections, keep-alive: {}", httpProtocol, maxConnections, keepAlive);
         this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .baseUrl(restUrl)
                 .build();
+        latencyStats.add(responseStats);
     }
 
     @PreDestroy
     public void destroy() {
         super.destroy();
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
     }
 
     @Override
@@ -82,68 +131,39 @@ public class HttpDeviceAPITest extends AbstractAPITest implements DeviceAPITest
     private String restUrl;
 
     @Override
-    protected void runApiTestIteration(int iteration, AtomicInteger totalSuccessPublishedCount, AtomicInteger totalFailedPublishedCount, CountDownLatch testDurationLatch) {
-        try {
-            Set<String> iterationDevices = new HashSet<>();
-            log.info("[{}] Starting performance iteration for {} devices...", iteration, deviceCount);
-            AtomicInteger successPublishedCount = new AtomicInteger();
-            AtomicInteger failedPublishedCount = new AtomicInteger();
-            CountDownLatch iterationLatch = new CountDownLatch(testMessagesPerSecond);
-            boolean alarmIteration = iteration >= alarmsStartTs && iteration < alarmsEndTs;
-            int alarmCount = 0;
-            for (int i = 0; i < testMessagesPerSecond; i++) {
-                boolean alarmRequired = alarmIteration && (alarmCount < alarmsPerSecond);
-                String deviceName = getDeviceName(iterationDevices, iteration, i);
-                Msg message = getNextMessage(deviceName, alarmRequired);
-                if (message.isTriggersAlarm()) {
-                    alarmCount++;
-                }
-                restClientService.getWorkers().submit(() -> {
-                    webClient.post()
-                            .uri(getTestUrl(), deviceName)
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body(BodyInserters.fromValue(message.getData()))
-                            .retrieve()
-                            .toBodilessEntity()
-                            .subscribe(
-                                response -> {
-                                    totalSuccessPublishedCount.incrementAndGet();
-                                    successPublishedCount.incrementAndGet();
-                                    log.debug("[{}] Message was successfully published to device: {}", iteration, deviceName);
-                                    iterationLatch.countDown();
-                                },
-                                error -> {
-                                    totalFailedPublishedCount.incrementAndGet();
-                                    failedPublishedCount.incrementAndGet();
-                                    log.error("[{}] Error while publishing message to device: {}", iteration, deviceName, error);
-                                    iterationLatch.countDown();
-                                }
-                            );
-                });
-            }
-            iterationLatch.await();
-            log.info("[{}] Completed performance iteration. Success: {}, Failed: {}, Alarms: {}", iteration, successPublishedCount.get(), failedPublishedCount.get(), alarmCount);
-            testDurationLatch.countDown();
-        } catch (Throwable t) {
-            log.warn("[{}] Failed to process iteration", iteration, t);
-        }
+    protected void onIterationStart(TestIteration iteration) {
+        iterationDevices = new HashSet<>();
+        log.info("[{}] {}", iteration.getNumber(), poolMetrics.format());
     }
 
-    protected String getDeviceName(Set<String> iterationDevices, int iteration, int msgOffsetIdx) {
-        String client;
-        if (sequentialTest) {
-            int iterationOffset = (iteration * testMessagesPerSecond) % deviceCount;
-            int idx = (iterationOffset + msgOffsetIdx) % deviceCount;
-            return getToken(false, idx);
-        } else {
-            while (true) {
-                client = getToken(false, random.nextInt(deviceCount));
-                if (iterationDevices.add(client)) {
-                    break;
-                }
-            }
-        }
-        return client;
+    @Override
+    protected void sendTestMessage(TestIteration iteration, long msgIdx, long intendedNanos) {
+        String deviceName = getDeviceName(iterationDevices, msgIdx);
+        boolean alarmRequired = reserveAlarm(iteration);
+        Msg message = getNextMessage(deviceName, alarmRequired, intendedNanos);
+        onMessageGenerated(iteration, alarmRequired, message);
+        iteration.onSent();
+        // the exchange is non-blocking, it is subscribed right from the rate scheduler thread
+        long sentNanos = System.nanoTime();
+        webClient.post()
+                .uri(getTestUrl(), deviceName)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(message.getData()))
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(
+                    response -> {
+                        long completedNanos = System.nanoTime();
+                        responseStats.record(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+                        responseStats.recordCorrected(TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos));
+                        iteration.onSuccess(message.getDatapoints());
+                        log.debug("[{}] Message was successfully published to device: {}", iteration.getNumber(), deviceName);
+                    },
+                    error -> {
+                        iteration.onFailure();
+                        log.error("[{}] Error while publishing message to device: {}", iteration.getNumber(), deviceName, error);
+                    }
+                );
     }
 
     private String getTestUrl() {
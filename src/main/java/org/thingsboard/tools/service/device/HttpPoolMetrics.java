@@ -0,0 +1,60 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.device;
+
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy of the HTTP connection pools, one pool per remote address. A pool with every connection acquired and a
+ * growing pending queue means the client is the limit, an idle pool with a high latency points to the server.
+ */
+public class HttpPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(id, metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(id);
+    }
+
+    public String format() {
+        int acquired = 0;
+        int allocated = 0;
+        int idle = 0;
+        int pending = 0;
+        int maxAllocated = 0;
+        for (ConnectionPoolMetrics metrics : pools.values()) {
+            acquired += metrics.acquiredSize();
+            allocated += metrics.allocatedSize();
+            idle += metrics.idleSize();
+            pending += metrics.pendingAcquireSize();
+            maxAllocated += metrics.maxAllocatedSize();
+        }
+        return String.format("HTTP pool connections acquired: %d, allocated: %d/%d, idle: %d, pending acquire: %d",
+                acquired, allocated, maxAllocated, idle, pending);
+    }
+
+}
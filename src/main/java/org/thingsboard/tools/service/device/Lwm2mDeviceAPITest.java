@@ -114,11 +114,6 @@ public class Lwm2mDeviceAPITest extends BaseLwm2mAPITest implements DeviceAPITes
         }
     }
 
-    @Override
-    protected void runApiTestIteration(int iteration, AtomicInteger totalSuccessPublishedCount, AtomicInteger totalFailedPublishedCount, CountDownLatch testDurationLatch) {
-
-    }
-
 
     protected List<Device> createEntities() throws InterruptedException {
         List<Device> result = Collections.synchronizedList(new ArrayList<>(1024 * 1024));
@@ -23,6 +23,7 @@ import org.thingsboard.mqtt.MqttClient;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.id.IdBased;
 import org.thingsboard.tools.service.mqtt.DeviceClient;
+import org.thingsboard.tools.service.msg.PayloadFormat;
 import org.thingsboard.tools.service.shared.BaseMqttAPITest;
 
 import java.nio.charset.StandardCharsets;
@@ -31,8 +32,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -59,18 +58,19 @@ public class MqttDeviceAPITest extends BaseMqttAPITest implements DeviceAPITest
     }
 
     @Override
-    protected String getWarmUpTopic() {
-        return "v1/devices/me/telemetry";
+    protected boolean isRpcSupported() {
+        return true;
     }
 
     @Override
-    protected byte[] getData(String deviceName) {
-        return data;
+    protected String getWarmUpTopic() {
+        return "v1/devices/me/telemetry";
     }
 
     @Override
-    protected void runApiTestIteration(int iteration, AtomicInteger totalSuccessPublishedCount, AtomicInteger totalFailedPublishedCount, CountDownLatch testDurationLatch) {
-        runApiTestIteration(iteration, totalSuccessPublishedCount, totalFailedPublishedCount, testDurationLatch, false);
+    protected byte[] getData(String deviceName) {
+        // the warm up message has to match the telemetry schema of the protobuf device profile
+        return payloadFormat == PayloadFormat.PROTOBUF ? tsMsgGenerator.getNextMessage(deviceName, false).getData() : data;
     }
 
     @Override
@@ -90,8 +90,6 @@ public class MqttDeviceAPITest extends BaseMqttAPITest implements DeviceAPITest
 
     @Override
     public void connectDevices() throws InterruptedException {
-        AtomicInteger totalConnectedCount = new AtomicInteger();
-        List<String> pack = null;
         List<String> devicesNames;
         if (!devices.isEmpty()) {
             devicesNames = devices.stream().map(Device::getName).collect(Collectors.toList());
@@ -101,20 +99,7 @@ public class MqttDeviceAPITest extends BaseMqttAPITest implements DeviceAPITest
                 devicesNames.add(getToken(false, i));
             }
         }
-        for (String device : devicesNames) {
-            if (pack == null) {
-                pack = new ArrayList<>(warmUpPackSize);
-            }
-            pack.add(device);
-            if (pack.size() == warmUpPackSize) {
-                connectDevices(pack, totalConnectedCount, false);
-                Thread.sleep(1 + random.nextInt(100));
-                pack = null;
-            }
-        }
-        if (pack != null && !pack.isEmpty()) {
-            connectDevices(pack, totalConnectedCount, false);
-        }
+        connectDevices(devicesNames, false);
         mapDevicesToDeviceClientConnections();
     }
 
@@ -15,25 +15,37 @@
  */
 package org.thingsboard.tools.service.gateway;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.thingsboard.mqtt.MqttClient;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.id.IdBased;
 import org.thingsboard.tools.service.mqtt.DeviceClient;
+import org.thingsboard.tools.service.mqtt.GatewayBatch;
+import org.thingsboard.tools.service.mqtt.InFlightWindow;
+import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.PayloadFormat;
+import org.thingsboard.tools.service.msg.template.ProtoWriter;
 import org.thingsboard.tools.service.shared.BaseMqttAPITest;
+import org.thingsboard.tools.service.shared.TestIteration;
 
 import jakarta.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -47,12 +59,22 @@ public class MqttGatewayAPITest extends BaseMqttAPITest implements GatewayAPITes
     int gatewayEndIdxConfig;
     @Value("${gateway.count}")
     int gatewayCount;
+    @Value("${gateway.batch.enabled:false}")
+    boolean batchEnabled;
+    @Value("${gateway.batch.maxMessages:50}")
+    int batchMaxMessages;
+    @Value("${gateway.batch.windowMs:100}")
+    int batchWindowMs;
 
     private List<Device> gateways = Collections.synchronizedList(new ArrayList<>(1024));
 
     private int gatewayStartIdx;
     private int gatewayEndIdx;
 
+    private final Map<MqttClient, GatewayBatch> batches = new ConcurrentHashMap<>();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchedMessageCount = new AtomicLong();
+
 
     @PostConstruct
     protected void init() {
@@ -80,8 +102,6 @@ public class MqttGatewayAPITest extends BaseMqttAPITest implements GatewayAPITes
 
     @Override
     public void connectGateways() throws InterruptedException {
-        AtomicInteger totalConnectedCount = new AtomicInteger();
-        List<String> pack = null;
         List<String> gatewayNames;
         if (!gateways.isEmpty()) {
             gatewayNames = gateways.stream().map(Device::getName).collect(Collectors.toList());
@@ -91,20 +111,7 @@ public class MqttGatewayAPITest extends BaseMqttAPITest implements GatewayAPITes
                 gatewayNames.add(getToken(true, i));
             }
         }
-        for (String gateway : gatewayNames) {
-            if (pack == null) {
-                pack = new ArrayList<>(warmUpPackSize);
-            }
-            pack.add(gateway);
-            if (pack.size() == warmUpPackSize) {
-                connectDevices(pack, totalConnectedCount, true);
-                Thread.sleep(100 + new Random().nextInt(100));
-                pack = null;
-            }
-        }
-        if (pack != null && !pack.isEmpty()) {
-            connectDevices(pack, totalConnectedCount, true);
-        }
+        connectDevices(gatewayNames, true);
         reportScheduledFuture = restClientService.getScheduler().scheduleAtFixedRate(this::reportMqttClientsStats, 300, 300, TimeUnit.SECONDS);
         mapDevicesToGatewayClientConnections();
     }
@@ -125,6 +132,102 @@ public class MqttGatewayAPITest extends BaseMqttAPITest implements GatewayAPITes
     @Override
     public void runApiTests() throws InterruptedException {
         super.runApiTests(deviceClients.size());
+        if (batchEnabled && batchCount.get() > 0) {
+            log.info("Published {} gateway batches, {} messages per batch on average",
+                    batchCount.get(), batchedMessageCount.get() / batchCount.get());
+        }
+    }
+
+    @Override
+    protected void sendTestMessage(TestIteration iteration, long msgIdx, long intendedNanos) {
+        if (!batchEnabled) {
+            super.sendTestMessage(iteration, msgIdx, intendedNanos);
+            return;
+        }
+        DeviceClient client = deviceClients.get((int) (msgIdx % deviceClients.size()));
+        MqttClient mqttClient = client.getMqttClient();
+        iteration.onSent();
+        boolean alarmRequired = reserveAlarm(iteration);
+        Executor executor = getPublishExecutor(mqttClient);
+        executor.execute(() -> {
+            Msg message = getNextMessage(client.getDeviceName(), alarmRequired, PooledByteBufAllocator.DEFAULT, intendedNanos);
+            onMessageGenerated(iteration, alarmRequired, message);
+            GatewayBatch batch = batches.computeIfAbsent(mqttClient, c -> new GatewayBatch(telemetryTest, payloadFormat == PayloadFormat.PROTOBUF));
+            ByteBuf body = message.getPayload();
+            if (!batch.add(client.getDeviceName(), body, iteration, message.getDatapoints(), intendedNanos)) {
+                flush(mqttClient, batch);
+                batch.add(client.getDeviceName(), body, iteration, message.getDatapoints(), intendedNanos);
+            }
+            int count = batch.getMessageCount();
+            if (count >= batchMaxMessages) {
+                flush(mqttClient, batch);
+            } else if (count == 1) {
+                long generation = batch.getGeneration();
+                restClientService.getScheduler().schedule(() -> executor.execute(() -> flush(mqttClient, batch, generation)),
+                        batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void flush(MqttClient mqttClient, GatewayBatch batch) {
+        flush(mqttClient, batch, null);
+    }
+
+    /**
+     * Drains the batch, only if it is still of the expected generation when that is given, and publishes it.
+     * The messages of a batch that fails to drain are already failed by the batch.
+     */
+    private void flush(MqttClient mqttClient, GatewayBatch batch, Long expectedGeneration) {
+        GatewayBatch.Drained drained;
+        try {
+            drained = expectedGeneration != null ? batch.drain(PooledByteBufAllocator.DEFAULT, expectedGeneration)
+                    : batch.drain(PooledByteBufAllocator.DEFAULT);
+        } catch (RuntimeException e) {
+            log.error("Failed to write batch for gateway: {}", mqttClient.getClientConfig().getUsername(), e);
+            return;
+        }
+        flush(mqttClient, drained);
+    }
+
+    /**
+     * Publishes a drained batch from the publish executor of the connection. The batch waits for a free in-flight
+     * permit, its messages are skipped only if the queue of delayed publishes is full as well.
+     */
+    private void flush(MqttClient mqttClient, GatewayBatch.Drained drained) {
+        if (drained == null) {
+            return;
+        }
+        batchCount.incrementAndGet();
+        batchedMessageCount.addAndGet(drained.entries().size());
+        InFlightWindow window = getInFlightWindow(mqttClient);
+        Runnable publish = () -> publish(mqttClient, drained.payload(), window, future -> {
+            for (GatewayBatch.Entry entry : drained.entries()) {
+                if (future.isSuccess()) {
+                    recordCorrectedPubAck(entry.intendedNanos());
+                    entry.iteration().onSuccess(entry.datapoints());
+                } else {
+                    entry.iteration().onFailure();
+                    onMessageFailed();
+                }
+            }
+            if (future.isSuccess()) {
+                log.debug("Batch of {} messages was successfully published to gateway: {}", drained.entries().size(),
+                        mqttClient.getClientConfig().getUsername());
+            } else {
+                log.error("Error while publishing batch of {} messages to gateway: {}", drained.entries().size(),
+                        mqttClient.getClientConfig().getUsername(), future.cause());
+            }
+        });
+        if (window == null || window.tryAcquire()) {
+            publish.run();
+        } else if (window.tryReserveDelay()) {
+            window.delay(publish);
+        } else {
+            drained.payload().release();
+            drained.entries().forEach(entry -> entry.iteration().onDropped());
+            log.debug("Batch of {} messages to gateway {} skipped, the in-flight window and its queue are full",
+                    drained.entries().size(), mqttClient.getClientConfig().getUsername());
+        }
     }
 
 
@@ -135,14 +238,17 @@ public class MqttGatewayAPITest extends BaseMqttAPITest implements GatewayAPITes
 
     @Override
     protected byte[] getData(String deviceName) {
+        if (payloadFormat == PayloadFormat.PROTOBUF) {
+            // ConnectMsg {deviceName = 1}
+            byte[] name = deviceName.getBytes(StandardCharsets.UTF_8);
+            ByteBuf connectMsg = Unpooled.buffer(name.length + 2);
+            ProtoWriter.writeLengthDelimited(connectMsg, 1, name.length);
+            connectMsg.writeBytes(name);
+            return ByteBufUtil.getBytes(connectMsg);
+        }
         return ("{\"device\":\"" + deviceName + "\"}").getBytes(StandardCharsets.UTF_8);
     }
 
-    @Override
-    protected void runApiTestIteration(int iteration, AtomicInteger totalSuccessPublishedCount, AtomicInteger totalFailedPublishedCount, CountDownLatch testDurationLatch) {
-        runApiTestIteration(iteration, totalSuccessPublishedCount, totalFailedPublishedCount, testDurationLatch, true);
-    }
-
     @Override
     protected String getTestTopic() {
         return telemetryTest ? "v1/gateway/telemetry" : "v1/gateway/attributes";
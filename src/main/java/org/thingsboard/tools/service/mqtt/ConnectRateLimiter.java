@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket for new connections. The rate is halved for every second in which the share of failed
+ * connects exceeds the threshold and grows back by a tenth of the target rate for every healthy second.
+ * {@link #acquire()} is expected to be called from a single thread, results may be reported from any thread.
+ */
+@Slf4j
+public class ConnectRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double MIN_RATE = 1;
+
+    private final double targetRate;
+    private final double failureThreshold;
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long windowStartNanos;
+
+    /**
+     * @param targetRate connects per second, 0 or less for no limit
+     * @param failureThreshold share of failed connects within a second that triggers the back-off
+     */
+    public ConnectRateLimiter(double targetRate, double failureThreshold) {
+        this.targetRate = targetRate;
+        this.failureThreshold = failureThreshold;
+        this.rate = targetRate;
+        this.tokens = Math.max(1, targetRate);
+        this.lastRefillNanos = System.nanoTime();
+        this.windowStartNanos = lastRefillNanos;
+    }
+
+    public void acquire() {
+        if (targetRate <= 0) {
+            return;
+        }
+        while (true) {
+            long now = System.nanoTime();
+            if (now - windowStartNanos >= NANOS_PER_SECOND) {
+                adjust();
+                windowStartNanos = now;
+            }
+            tokens = Math.min(rate, tokens + (now - lastRefillNanos) * rate / NANOS_PER_SECOND);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
+            LockSupport.parkNanos((long) ((1 - tokens) * NANOS_PER_SECOND / rate));
+        }
+    }
+
+    public void onSuccess() {
+        successes.incrementAndGet();
+    }
+
+    public void onFailure() {
+        failures.incrementAndGet();
+    }
+
+    public double getRate() {
+        return targetRate <= 0 ? Double.POSITIVE_INFINITY : rate;
+    }
+
+    void adjust() {
+        long failed = failures.getAndSet(0);
+        long total = failed + successes.getAndSet(0);
+        if (total == 0) {
+            return;
+        }
+        if ((double) failed / total > failureThreshold) {
+            double reduced = Math.max(MIN_RATE, rate / 2);
+            if (reduced < rate) {
+                log.warn("{} of {} connects failed, reducing connect rate to {}/s", failed, total, Math.round(reduced));
+            }
+            rate = reduced;
+        } else if (rate < targetRate) {
+            rate = Math.min(targetRate, rate + targetRate / 10);
+        }
+    }
+
+}
@@ -26,7 +26,7 @@ public class DeviceClient {
 
     private String deviceName;
 
-    private MqttClient mqttClient;
+    private volatile MqttClient mqttClient;
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,172 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import org.thingsboard.tools.service.msg.template.PayloadWriter;
+import org.thingsboard.tools.service.shared.TestIteration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages of the devices behind one gateway connection that are published together as a single
+ * {"device":[body, ...], ...} telemetry or {"device":body, ...} attributes payload. Protobuf gateway messages are
+ * complete messages of a single device and are simply concatenated.
+ */
+public class GatewayBatch {
+
+    public record Entry(TestIteration iteration, int datapoints, long intendedNanos) {
+    }
+
+    /**
+     * Payload of a drained batch together with the messages it contains.
+     */
+    public record Drained(ByteBuf payload, List<Entry> entries) {
+    }
+
+    private final boolean telemetry;
+    private final boolean protobuf;
+    private final Map<String, List<ByteBuf>> bodies = new LinkedHashMap<>();
+    private List<Entry> entries = new ArrayList<>();
+    private int size;
+    private long generation;
+
+    public GatewayBatch(boolean telemetry) {
+        this(telemetry, false);
+    }
+
+    public GatewayBatch(boolean telemetry, boolean protobuf) {
+        this.telemetry = telemetry;
+        this.protobuf = protobuf;
+    }
+
+    /**
+     * Adds the body and takes ownership of it. Attributes of a device can not be repeated within one payload,
+     * so false is returned, leaving the body to the caller, when the batch has to be drained first.
+     *
+     * @param intendedNanos send time of the message intended by the rate schedule
+     */
+    public synchronized boolean add(String deviceName, ByteBuf body, TestIteration iteration, int datapoints, long intendedNanos) {
+        List<ByteBuf> deviceBodies = bodies.get(deviceName);
+        if (deviceBodies == null) {
+            deviceBodies = new ArrayList<>(telemetry ? 4 : 1);
+            bodies.put(deviceName, deviceBodies);
+            size += deviceName.length() + 6;
+        } else if (!telemetry && !protobuf) {
+            return false;
+        }
+        deviceBodies.add(body);
+        size += body.readableBytes() + 1;
+        entries.add(new Entry(iteration, datapoints, intendedNanos));
+        return true;
+    }
+
+    public synchronized int getMessageCount() {
+        return entries.size();
+    }
+
+    /**
+     * Incremented on every drain, lets a delayed flush tell whether the batch it was scheduled for is still pending.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Drains the batch only if it was not drained since the given generation was read.
+     */
+    public synchronized Drained drain(ByteBufAllocator allocator, long expectedGeneration) {
+        return generation == expectedGeneration ? drain(allocator) : null;
+    }
+
+    /**
+     * Writes the pending messages into a single payload and resets the batch. If the payload can not be written,
+     * the pending messages are failed and the batch is reset as well.
+     *
+     * @return the drained batch or null if the batch is empty
+     */
+    public synchronized Drained drain(ByteBufAllocator allocator) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        List<Entry> drainedEntries = entries;
+        entries = new ArrayList<>();
+        generation++;
+        ByteBuf payload = null;
+        try {
+            payload = allocator.buffer(size + 2);
+            if (protobuf) {
+                writeConcatenated(payload);
+            } else {
+                writeJson(payload);
+            }
+        } catch (RuntimeException e) {
+            if (payload != null) {
+                payload.release();
+            }
+            drainedEntries.forEach(entry -> entry.iteration().onFailure());
+            throw e;
+        } finally {
+            bodies.values().forEach(deviceBodies -> deviceBodies.forEach(ReferenceCountUtil::safeRelease));
+            bodies.clear();
+            size = 0;
+        }
+        return new Drained(payload, drainedEntries);
+    }
+
+    private void writeConcatenated(ByteBuf payload) {
+        for (List<ByteBuf> deviceBodies : bodies.values()) {
+            for (ByteBuf body : deviceBodies) {
+                payload.writeBytes(body, body.readerIndex(), body.readableBytes());
+            }
+        }
+    }
+
+    private void writeJson(ByteBuf payload) {
+        payload.writeByte('{');
+        boolean firstDevice = true;
+        for (Map.Entry<String, List<ByteBuf>> device : bodies.entrySet()) {
+            if (!firstDevice) {
+                payload.writeByte(',');
+            }
+            firstDevice = false;
+            payload.writeByte('"');
+            PayloadWriter.writeAscii(payload, device.getKey());
+            payload.writeByte('"').writeByte(':');
+            if (telemetry) {
+                payload.writeByte('[');
+            }
+            boolean firstBody = true;
+            for (ByteBuf body : device.getValue()) {
+                if (!firstBody) {
+                    payload.writeByte(',');
+                }
+                firstBody = false;
+                payload.writeBytes(body, body.readerIndex(), body.readableBytes());
+            }
+            if (telemetry) {
+                payload.writeByte(']');
+            }
+        }
+        payload.writeByte('}');
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded window of unacknowledged QoS 1 publishes of a single MQTT connection. Delayed publishes are started
+ * by the thread that releases a permit, so nothing ever blocks while waiting for the window. The queue of delayed
+ * publishes is bounded by the window size, a slot has to be reserved with {@link #tryReserveDelay()} first.
+ */
+public class InFlightWindow {
+
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> delayed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger delayedCount = new AtomicInteger();
+
+    public InFlightWindow(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves a slot in the queue of delayed publishes.
+     *
+     * @return false if the queue is full and the message has to be skipped
+     */
+    public boolean tryReserveDelay() {
+        while (true) {
+            int current = delayedCount.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (delayedCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Runs the publish once a permit is available. The caller must have reserved a slot with {@link #tryReserveDelay()}
+     * and must release the permit when the publish completes.
+     */
+    public void delay(Runnable publish) {
+        delayed.add(publish);
+        // the window may have been released between a failed tryAcquire and adding the task
+        if (tryAcquire()) {
+            runNextOrRelease();
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        if (!delayed.isEmpty() && tryAcquire()) {
+            runNextOrRelease();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getDelayed() {
+        return delayedCount.get();
+    }
+
+    private void runNextOrRelease() {
+        Runnable next = delayed.poll();
+        if (next != null) {
+            delayedCount.decrementAndGet();
+            next.run();
+        } else {
+            inFlight.decrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a mass reconnect of dropped MQTT connections. Completes once every dropped client has either
+ * reconnected or given up; the messages that failed in the meantime are counted as lost.
+ */
+@Slf4j
+public class ReconnectStorm {
+
+    @Getter
+    private final int dropped;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger remaining;
+    private final AtomicInteger reconnected = new AtomicInteger();
+    private final AtomicLong lostMessages = new AtomicLong();
+    private volatile long durationMs = -1;
+
+    public ReconnectStorm(int dropped) {
+        this.dropped = dropped;
+        this.remaining = new AtomicInteger(dropped);
+    }
+
+    public void onMessageLost() {
+        lostMessages.incrementAndGet();
+    }
+
+    /**
+     * @return true if this was the last dropped client
+     */
+    public boolean onReconnectCompleted(boolean success) {
+        if (success) {
+            reconnected.incrementAndGet();
+        }
+        if (remaining.decrementAndGet() > 0) {
+            return false;
+        }
+        durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("Reconnect storm completed: {} of {} dropped connections reconnected in {} ms, {} messages lost",
+                reconnected.get(), dropped, durationMs, lostMessages.get());
+        return true;
+    }
+
+    public boolean isCompleted() {
+        return durationMs >= 0;
+    }
+
+    public int getReconnected() {
+        return reconnected.get();
+    }
+
+    public long getLostMessages() {
+        return lostMessages.get();
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+}
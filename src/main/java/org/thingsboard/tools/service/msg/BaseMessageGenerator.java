@@ -16,19 +16,123 @@
 package org.thingsboard.tools.service.msg;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBufAllocator;
 import org.springframework.beans.factory.annotation.Value;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
+import org.thingsboard.tools.service.msg.template.PayloadTemplate;
+import org.thingsboard.tools.service.msg.template.ProtoPayloadBuilder;
+import org.thingsboard.tools.service.msg.template.ValuesBuilder;
 
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public abstract class BaseMessageGenerator {
 
-    protected final Random random = new Random();
     protected static final ObjectMapper mapper = new ObjectMapper();
 
     @Value("${test.api:gateway}")
     private String testApi;
 
+    @Value("${gateway.batch.enabled:false}")
+    private boolean gatewayBatch;
+
+    @Value("${test.payloadRingSize:0}")
+    protected int payloadRingSize;
+
+    @Value("${test.payloadFormat:JSON}")
+    protected PayloadFormat payloadFormat = PayloadFormat.JSON;
+
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
+        return getNextMessage(deviceName, shouldTriggerAlarm, null);
+    }
+
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator) {
+        return getNextMessage(deviceName, shouldTriggerAlarm, allocator, System.currentTimeMillis());
+    }
+
+    public abstract Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts);
+
+    /**
+     * Encodes the template into a byte array, or into a buffer from the allocator when one is given.
+     */
+    protected Msg encode(MessageTemplate template, String deviceName, boolean triggersAlarm, ByteBufAllocator allocator, long ts) {
+        if (allocator == null) {
+            return new Msg(template.encode(deviceName, ts), triggersAlarm, template.getDatapoints());
+        }
+        return new Msg(template.write(allocator, deviceName, ts), triggersAlarm, template.getDatapoints());
+    }
+
+    /**
+     * Random of the calling thread, the values are generated on the publishing event loops and a shared Random
+     * would make them contend on its seed. Not seeded by {@code test.seed}, so payload values are not reproducible.
+     */
+    protected static Random random() {
+        return ThreadLocalRandom.current();
+    }
+
     protected boolean isGateway() {
         return "gateway".equalsIgnoreCase(testApi);
     }
+
+    /**
+     * Batched JSON gateway messages are wrapped by the batch, so the generator produces plain device payloads.
+     * Protobuf gateway messages of single devices are concatenated by the batch as they are.
+     */
+    private boolean isWrappedForGateway() {
+        return isGateway() && (!gatewayBatch || payloadFormat == PayloadFormat.PROTOBUF);
+    }
+
+    /**
+     * Telemetry template in the configured payload format, the values are filled by the given builder.
+     */
+    protected MessageTemplate telemetryTemplate(Consumer<ValuesBuilder> values, int ringSize) {
+        if (payloadFormat == PayloadFormat.PROTOBUF) {
+            return protoTemplate(values, true, ringSize);
+        }
+        return jsonTelemetryTemplate(values::accept, ringSize);
+    }
+
+    protected MessageTemplate attributesTemplate(Consumer<ValuesBuilder> values, int ringSize) {
+        if (payloadFormat == PayloadFormat.PROTOBUF) {
+            return protoTemplate(values, false, ringSize);
+        }
+        return jsonAttributesTemplate(values::accept, ringSize);
+    }
+
+    private MessageTemplate protoTemplate(Consumer<ValuesBuilder> values, boolean telemetry, int ringSize) {
+        ProtoPayloadBuilder body = new ProtoPayloadBuilder();
+        values.accept(body);
+        boolean gateway = isWrappedForGateway();
+        return new MessageTemplate(gateway ? body.buildKeyValues(telemetry) : body.buildSchemaMessage(telemetry),
+                gateway, telemetry, true, ringSize);
+    }
+
+    /**
+     * Template of {"ts":..., "values":{...}} where the values object is filled by the given builder.
+     * JSON only, for payloads that have no protobuf variant.
+     */
+    protected MessageTemplate jsonTelemetryTemplate(Consumer<PayloadTemplate.Builder> values, int ringSize) {
+        checkJsonFormat();
+        PayloadTemplate.Builder body = PayloadTemplate.builder()
+                .literal("{\"ts\":").ts()
+                .literal(",\"values\":").beginObject();
+        values.accept(body);
+        body.endObject().literal("}");
+        return new MessageTemplate(body.build(), isWrappedForGateway(), true, ringSize);
+    }
+
+    protected MessageTemplate jsonAttributesTemplate(Consumer<PayloadTemplate.Builder> values, int ringSize) {
+        checkJsonFormat();
+        PayloadTemplate.Builder body = PayloadTemplate.builder().beginObject();
+        values.accept(body);
+        body.endObject();
+        return new MessageTemplate(body.build(), isWrappedForGateway(), false, ringSize);
+    }
+
+    private void checkJsonFormat() {
+        if (payloadFormat != PayloadFormat.JSON) {
+            throw new IllegalStateException(getClass().getSimpleName() + " supports the JSON payload format only");
+        }
+    }
 }
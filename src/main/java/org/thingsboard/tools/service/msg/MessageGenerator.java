@@ -15,8 +15,22 @@
  */
 package org.thingsboard.tools.service.msg;
 
+import io.netty.buffer.ByteBufAllocator;
+
 public interface MessageGenerator {
 
     Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm);
 
+    /**
+     * Same as {@link #getNextMessage(String, boolean)} but writes the payload into a buffer taken from the given
+     * allocator, so transports can publish it without copying. The returned message owns the buffer.
+     */
+    Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator);
+
+    /**
+     * Same as {@link #getNextMessage(String, boolean, ByteBufAllocator)} but stamps the given ts into the payload
+     * instead of the current time. The allocator may be null.
+     */
+    Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts);
+
 }
@@ -15,26 +15,59 @@
  */
 package org.thingsboard.tools.service.msg;
 
-import lombok.AllArgsConstructor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import lombok.Getter;
 
 import java.nio.charset.StandardCharsets;
 
-@AllArgsConstructor
 public class Msg {
 
-    @Getter
     private final byte[] data;
+    private final ByteBuf payload;
     @Getter
     private final boolean triggersAlarm;
+    @Getter
+    private final int datapoints;
 
     public Msg(byte[] data) {
+        this(data, false);
+    }
+
+    public Msg(byte[] data, boolean triggersAlarm) {
+        this(data, triggersAlarm, 0);
+    }
+
+    public Msg(byte[] data, boolean triggersAlarm, int datapoints) {
         this.data = data;
-        this.triggersAlarm = false;
+        this.payload = null;
+        this.triggersAlarm = triggersAlarm;
+        this.datapoints = datapoints;
+    }
+
+    public Msg(ByteBuf payload, boolean triggersAlarm, int datapoints) {
+        this.data = null;
+        this.payload = payload;
+        this.triggersAlarm = triggersAlarm;
+        this.datapoints = datapoints;
+    }
+
+    public byte[] getData() {
+        return data != null ? data : ByteBufUtil.getBytes(payload);
+    }
+
+    /**
+     * Payload ready to be written to a channel. The caller takes ownership and must either pass it
+     * to the transport, which releases it once written, or release it itself.
+     */
+    public ByteBuf getPayload() {
+        return payload != null ? payload : Unpooled.wrappedBuffer(data);
     }
 
     @Override
     public String toString() {
-        return "Msg(data=" + new String(this.data, StandardCharsets.UTF_8) + ", triggersAlarm=" + this.triggersAlarm + ")";
+        String body = data != null ? new String(data, StandardCharsets.UTF_8) : payload.toString(StandardCharsets.UTF_8);
+        return "Msg(data=" + body + ", triggersAlarm=" + this.triggersAlarm + ")";
     }
 }
@@ -15,7 +15,7 @@
  */
 package org.thingsboard.tools.service.msg.industrialPLC;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -24,7 +24,9 @@ import org.springframework.validation.annotation.Validated;
 import org.thingsboard.tools.service.msg.BaseMessageGenerator;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
@@ -34,30 +36,26 @@ import jakarta.validation.constraints.Min;
 @Validated
 public class IndustrialPLCAttributesGenerator extends BaseMessageGenerator implements MessageGenerator {
 
+    static final int VALUE_FRACTION_DIGITS = 12;
+
     @Min(1)
     @Max(999)
     @Value("${test.payloadDatapoints:60}")
     int payloadDatapoints;
 
-    @Override
-    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
-        byte[] payload;
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode values;
-            if (isGateway()) {
-                values = data.putObject(deviceName);
-            } else {
-                values = data;
-            }
+    private MessageTemplate template;
+
+    @PostConstruct
+    public void init() {
+        template = attributesTemplate(values -> {
             for (int i = 0; i < payloadDatapoints; i++) {
-                values.put(String.format("line%03d", i), random.nextDouble()*100);
+                values.decimalValue(String.format("line%03d", i), () -> random().nextDouble() * 100, VALUE_FRACTION_DIGITS);
             }
-            payload = mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-        return new Msg(payload);
+        }, payloadRingSize);
+    }
+
+    @Override
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts) {
+        return encode(template, deviceName, false, allocator, ts);
     }
 }
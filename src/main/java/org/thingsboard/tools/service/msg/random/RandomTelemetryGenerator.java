@@ -15,130 +15,65 @@
  */
 package org.thingsboard.tools.service.msg.random;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.thingsboard.tools.service.msg.BaseMessageGenerator;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
+import org.thingsboard.tools.service.msg.template.PayloadTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+import static org.thingsboard.tools.service.msg.template.PayloadWriter.writeLong;
 
 @Slf4j
 @Service(value = "randomTelemetryGenerator")
 @ConditionalOnProperty(prefix = "test", value = "payloadType", havingValue = "RANDOM")
 public class RandomTelemetryGenerator extends BaseMessageGenerator implements MessageGenerator {
 
-    @Override
-    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
-        int percent = random.nextInt(100);
-        if (percent < 29) {
-            return new Msg(getTinyRandomMessage(deviceName, shouldTriggerAlarm), shouldTriggerAlarm);
-        } else if (percent < 59) {
-            return new Msg(getSmallRandomMessage(deviceName));
-        } else if (percent < 99) {
-            return new Msg(getRandomMessage(deviceName));
-        } else {
-            return new Msg(getHugeRandomMessage(deviceName));
-        }
-    }
+    private MessageTemplate tinyTemplate;
+    private MessageTemplate tinyAlarmTemplate;
+    private MessageTemplate smallTemplate;
+    private MessageTemplate randomTemplate;
+    private MessageTemplate hugeTemplate;
 
-    private byte[] getTinyRandomMessage(String deviceName, boolean shouldTriggerAlarm) {
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode tsNode;
-            if (isGateway()) {
-                ArrayNode array = data.putArray(deviceName);
-                tsNode = array.addObject();
-            } else {
-                tsNode = data;
-            }
-            tsNode.put("ts", System.currentTimeMillis());
-            ObjectNode values = tsNode.putObject("values");
-            if (shouldTriggerAlarm) {
-                values.put("t1", 100);
-            } else {
-                values.put("t1", random.nextInt(100));
-            }
-            return mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-    }
-
-    private byte[] getSmallRandomMessage(String deviceName) {
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode tsNode;
-            if (isGateway()) {
-                ArrayNode array = data.putArray(deviceName);
-                tsNode = array.addObject();
-            } else {
-                tsNode = data;
-            }
-            tsNode.put("ts", System.currentTimeMillis());
-            ObjectNode values = tsNode.putObject("values");
+    @PostConstruct
+    public void init() {
+        tinyTemplate = jsonTelemetryTemplate(values -> values.field("t1", (out, ctx) -> writeLong(out, random().nextInt(100))), payloadRingSize);
+        tinyAlarmTemplate = jsonTelemetryTemplate(values -> values.field("t1", "100"), 0);
+        smallTemplate = jsonTelemetryTemplate(values -> {
             for (int i = 0; i < 20; i++) {
-                values.put("t2_" + i, random.nextInt(100));
+                values.field("t2_" + i, (out, ctx) -> writeLong(out, random().nextInt(100)));
             }
-            return mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-    }
-
-    private byte[] getRandomMessage(String deviceName) {
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode tsNode;
-            if (isGateway()) {
-                ArrayNode array = data.putArray(deviceName);
-                tsNode = array.addObject();
-            } else {
-                tsNode = data;
-            }
-            tsNode.put("ts", System.currentTimeMillis());
-            ObjectNode values = tsNode.putObject("values");
-
-            values.put("t3", getValueToRandomMessage(100));
-
-            return mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
+        }, payloadRingSize);
+        randomTemplate = jsonTelemetryTemplate(values -> randomValues(values.key("t3"), 100), payloadRingSize);
+        hugeTemplate = jsonTelemetryTemplate(values -> randomValues(values.key("t4"), 1000), payloadRingSize);
     }
 
-    private byte[] getHugeRandomMessage(String deviceName) {
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode tsNode;
-            if (isGateway()) {
-                ArrayNode array = data.putArray(deviceName);
-                tsNode = array.addObject();
-            } else {
-                tsNode = data;
-            }
-            tsNode.put("ts", System.currentTimeMillis());
-            ObjectNode values = tsNode.putObject("values");
-
-            values.put("t4", getValueToRandomMessage(1000));
-
-            return mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
+    @Override
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts) {
+        int percent = random().nextInt(100);
+        if (percent < 29) {
+            return encode(shouldTriggerAlarm ? tinyAlarmTemplate : tinyTemplate, deviceName, shouldTriggerAlarm, allocator, ts);
+        } else if (percent < 59) {
+            return encode(smallTemplate, deviceName, false, allocator, ts);
+        } else if (percent < 99) {
+            return encode(randomTemplate, deviceName, false, allocator, ts);
+        } else {
+            return encode(hugeTemplate, deviceName, false, allocator, ts);
         }
     }
 
-    private String getValueToRandomMessage(int n) throws JsonProcessingException {
-        ObjectNode values = mapper.createObjectNode();
+    // JSON object with n random values serialized as a string value
+    private void randomValues(PayloadTemplate.Builder builder, int n) {
+        builder.literal("\"{");
         for (int i = 0; i < n; i++) {
-            values.put("v" + i, random.nextInt(100));
+            builder.literal(i > 0 ? "," : "").literal("\\\"v" + i + "\\\":")
+                    .slot((out, ctx) -> writeLong(out, random().nextInt(100)));
         }
-        return mapper.writeValueAsString(values);
+        builder.literal("}\"");
     }
 }
@@ -15,40 +15,34 @@
  */
 package org.thingsboard.tools.service.msg.smartMeter;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.thingsboard.tools.service.msg.BaseMessageGenerator;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
 
-import java.util.Random;
+import jakarta.annotation.PostConstruct;
 
 @Slf4j
 @Service(value = "randomAttributesGenerator")
 @ConditionalOnProperty(prefix = "test", value = "payloadType", havingValue = "SMART_METER")
 public class SmartMeterAttributesGenerator extends BaseMessageGenerator implements MessageGenerator {
 
+    private MessageTemplate template;
+
+    @PostConstruct
+    public void init() {
+        template = attributesTemplate(values -> values
+                .intValue("pulseCounter", () -> random().nextInt(1000000))
+                .booleanValue("leakage", () -> random().nextInt(100) > 1)  // leakage true in 1% cases
+                .intValue("batteryLevel", () -> random().nextInt(100)), payloadRingSize);
+    }
+
     @Override
-    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
-        byte[] payload;
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode values;
-            if (isGateway()) {
-                values = data.putObject(deviceName);
-            } else {
-                values = data;
-            }
-            values.put("pulseCounter", random.nextInt(1000000));
-            values.put("leakage", random.nextInt(100) > 1);  // leakage true in 1% cases
-            values.put("batteryLevel", random.nextInt(100));
-            payload = mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-        return new Msg(payload);
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts) {
+        return encode(template, deviceName, false, allocator, ts);
     }
 }
@@ -15,14 +15,16 @@
  */
 package org.thingsboard.tools.service.msg.smartMeter;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.thingsboard.tools.service.msg.BaseMessageGenerator;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
+
+import jakarta.annotation.PostConstruct;
 
 @Slf4j
 @Service(value = "randomTelemetryGenerator")
@@ -31,28 +33,23 @@ public class SmartMeterTelemetryGenerator extends BaseMessageGenerator implement
 
     static final int BATTERY_LEVEL_ALARM = 10;
 
+    private MessageTemplate template;
+    private MessageTemplate alarmTemplate;
+
+    @PostConstruct
+    public void init() {
+        template = telemetryTemplate(values -> values
+                .intValue("pulseCounter", () -> random().nextInt(1000000))
+                .booleanValue("leakage", () -> random().nextInt(100) > 1)  // leakage true in 1% cases
+                .intValue("batteryLevel", () -> random().nextInt(50) + 50), payloadRingSize);
+        alarmTemplate = telemetryTemplate(values -> values
+                .intValue("pulseCounter", () -> random().nextInt(1000000))
+                .booleanValue("leakage", () -> random().nextInt(100) > 1)
+                .intValue("batteryLevel", BATTERY_LEVEL_ALARM), 0);
+    }
+
     @Override
-    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
-        byte[] payload;
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode tsNode;
-            if (isGateway()) {
-                ArrayNode array = data.putArray(deviceName);
-                tsNode = array.addObject();
-            } else {
-                tsNode = data;
-            }
-            tsNode.put("ts", System.currentTimeMillis());
-            ObjectNode values = tsNode.putObject("values");
-            values.put("pulseCounter", random.nextInt(1000000));
-            values.put("leakage", random.nextInt(100) > 1);  // leakage true in 1% cases
-            values.put("batteryLevel", shouldTriggerAlarm ? BATTERY_LEVEL_ALARM : random.nextInt(50) + 50);
-            payload = mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-        return new Msg(payload, shouldTriggerAlarm);
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts) {
+        return encode(shouldTriggerAlarm ? alarmTemplate : template, deviceName, shouldTriggerAlarm, allocator, ts);
     }
 }
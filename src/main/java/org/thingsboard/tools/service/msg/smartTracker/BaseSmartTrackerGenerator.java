@@ -17,9 +17,9 @@ package org.thingsboard.tools.service.msg.smartTracker;
 
 import org.thingsboard.tools.service.msg.BaseMessageGenerator;
 
-import java.text.DecimalFormat;
-
 public abstract class BaseSmartTrackerGenerator extends BaseMessageGenerator {
-    protected static DecimalFormat speedFormat = new DecimalFormat("#.#");
-    protected static DecimalFormat latLngFormat = new DecimalFormat("#.######");
+
+    protected static final int SPEED_FRACTION_DIGITS = 1;
+    protected static final int LAT_LNG_FRACTION_DIGITS = 6;
+
 }
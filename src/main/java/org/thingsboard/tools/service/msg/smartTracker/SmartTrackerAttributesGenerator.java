@@ -15,39 +15,35 @@
  */
 package org.thingsboard.tools.service.msg.smartTracker;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
+
+import jakarta.annotation.PostConstruct;
 
 @Slf4j
 @Service(value = "randomAttributesGenerator")
 @ConditionalOnProperty(prefix = "test", value = "payloadType", havingValue = "SMART_TRACKER")
 public class SmartTrackerAttributesGenerator extends BaseSmartTrackerGenerator implements MessageGenerator {
 
+    private MessageTemplate template;
+
+    @PostConstruct
+    public void init() {
+        template = attributesTemplate(values -> values
+                .decimalStringValue("latitude", () -> random().nextDouble() * 100, LAT_LNG_FRACTION_DIGITS)
+                .decimalStringValue("longitude", () -> random().nextDouble() * 100, LAT_LNG_FRACTION_DIGITS)
+                .decimalStringValue("speed", () -> random().nextDouble() * 100, SPEED_FRACTION_DIGITS)
+                .intValue("fuel", () -> random().nextInt(100))
+                .intValue("batteryLevel", () -> random().nextInt(100)), payloadRingSize);
+    }
+
     @Override
-    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
-        byte[] payload;
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode values;
-            if (isGateway()) {
-                values = data.putObject(deviceName);
-            } else {
-                values = data;
-            }
-            values.put("latitude", latLngFormat.format(random.nextDouble() * 100));
-            values.put("longitude", latLngFormat.format(random.nextDouble() * 100));
-            values.put("speed", speedFormat.format(random.nextDouble() * 100));
-            values.put("fuel", random.nextInt(100));
-            values.put("batteryLevel", random.nextInt(100));
-            payload = mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-        return new Msg(payload);
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts) {
+        return encode(template, deviceName, false, allocator, ts);
     }
 }
@@ -15,13 +15,16 @@
  */
 package org.thingsboard.tools.service.msg.smartTracker;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.template.MessageTemplate;
+import org.thingsboard.tools.service.msg.template.ValuesBuilder;
+
+import jakarta.annotation.PostConstruct;
 
 @Slf4j
 @Service(value = "randomTelemetryGenerator")
@@ -30,30 +33,27 @@ public class SmartTrackerTelemetryGenerator extends BaseSmartTrackerGenerator im
 
     static final int BATTERY_LEVEL_ALARM = 10;
 
+    private MessageTemplate template;
+    private MessageTemplate alarmTemplate;
+
+    @PostConstruct
+    public void init() {
+        template = telemetryTemplate(values -> location(values)
+                .intValue("batteryLevel", () -> random().nextInt(50) + 50), payloadRingSize);
+        alarmTemplate = telemetryTemplate(values -> location(values)
+                .intValue("batteryLevel", BATTERY_LEVEL_ALARM), 0);
+    }
+
+    private ValuesBuilder location(ValuesBuilder values) {
+        return values
+                .decimalStringValue("latitude", () -> random().nextDouble() * 100, LAT_LNG_FRACTION_DIGITS)
+                .decimalStringValue("longitude", () -> random().nextDouble() * 100, LAT_LNG_FRACTION_DIGITS)
+                .decimalStringValue("speed", () -> random().nextDouble() * 100, SPEED_FRACTION_DIGITS)
+                .intValue("fuel", () -> random().nextInt(100));
+    }
+
     @Override
-    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm) {
-        byte[] payload;
-        try {
-            ObjectNode data = mapper.createObjectNode();
-            ObjectNode tsNode;
-            if (isGateway()) {
-                ArrayNode array = data.putArray(deviceName);
-                tsNode = array.addObject();
-            } else {
-                tsNode = data;
-            }
-            tsNode.put("ts", System.currentTimeMillis());
-            ObjectNode values = tsNode.putObject("values");
-            values.put("latitude", latLngFormat.format(random.nextDouble() * 100));
-            values.put("longitude", latLngFormat.format(random.nextDouble() * 100));
-            values.put("speed", speedFormat.format(random.nextDouble() * 100));
-            values.put("fuel", random.nextInt(100));
-            values.put("batteryLevel", shouldTriggerAlarm ? BATTERY_LEVEL_ALARM : random.nextInt(50) + 50);
-            payload = mapper.writeValueAsBytes(data);
-        } catch (Exception e) {
-            log.warn("Failed to generate message", e);
-            throw new RuntimeException(e);
-        }
-        return new Msg(payload, shouldTriggerAlarm);
+    public Msg getNextMessage(String deviceName, boolean shouldTriggerAlarm, ByteBufAllocator allocator, long ts) {
+        return encode(shouldTriggerAlarm ? alarmTemplate : template, deviceName, shouldTriggerAlarm, allocator, ts);
     }
 }
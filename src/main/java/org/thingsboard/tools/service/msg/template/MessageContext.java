@@ -0,0 +1,36 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Per message state shared by the slots of a {@link PayloadTemplate}.
+ */
+@Getter
+@Setter
+public class MessageContext {
+
+    private long ts;
+    // position of the ts digits relative to the start of the template output, -1 if the template has no ts
+    private int tsOffset = -1;
+
+    public MessageContext(long ts) {
+        this.ts = ts;
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Message body template together with the wrapping required by the device or gateway API:
+ * gateway telemetry is sent as {"device":[body]} and gateway attributes as {"device":body}.
+ * Protobuf gateway messages wrap the body into GatewayTelemetryMsg or GatewayAttributesMsg of a single device.
+ */
+public class MessageTemplate {
+
+    private static final ThreadLocal<ByteBuf> BUFFER = ThreadLocal.withInitial(() -> Unpooled.buffer(1024));
+    private static final ThreadLocal<ByteBuf> PROTO_BODY = ThreadLocal.withInitial(() -> Unpooled.buffer(1024));
+
+    private final PayloadTemplate body;
+    private final PayloadRing ring;
+    private final boolean gateway;
+    private final boolean telemetry;
+    private final boolean protobuf;
+    // last encoded size, used to size pooled buffers; races between writers are harmless
+    private int sizeHint = 256;
+
+    public MessageTemplate(PayloadTemplate body, boolean gateway, boolean telemetry, int ringSize) {
+        this(body, gateway, telemetry, false, ringSize);
+    }
+
+    public MessageTemplate(PayloadTemplate body, boolean gateway, boolean telemetry, boolean protobuf, int ringSize) {
+        this.body = body;
+        this.ring = ringSize > 0 ? new PayloadRing(body, ringSize) : null;
+        this.gateway = gateway;
+        this.telemetry = telemetry;
+        this.protobuf = protobuf;
+    }
+
+    public int getDatapoints() {
+        return body.getDatapoints();
+    }
+
+    public byte[] encode(String deviceName) {
+        return encode(deviceName, System.currentTimeMillis());
+    }
+
+    public byte[] encode(String deviceName, long ts) {
+        ByteBuf buf = BUFFER.get().clear();
+        write(buf, deviceName, ts);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    public ByteBuf write(ByteBufAllocator allocator, String deviceName) {
+        return write(allocator, deviceName, System.currentTimeMillis());
+    }
+
+    /**
+     * Encodes the message into a new buffer taken from the given allocator. The caller owns the returned buffer.
+     */
+    public ByteBuf write(ByteBufAllocator allocator, String deviceName, long ts) {
+        ByteBuf buf = allocator.buffer(sizeHint);
+        try {
+            write(buf, deviceName, ts);
+        } catch (RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+        sizeHint = buf.readableBytes();
+        return buf;
+    }
+
+    public void write(ByteBuf out, String deviceName, long ts) {
+        if (protobuf) {
+            if (gateway) {
+                writeProtoGateway(out, deviceName, ts);
+            } else {
+                writeBody(out, ts);
+            }
+            return;
+        }
+        if (gateway) {
+            out.writeByte('{').writeByte('"');
+            PayloadWriter.writeAscii(out, deviceName);
+            out.writeByte('"').writeByte(':');
+            if (telemetry) {
+                out.writeByte('[');
+            }
+        }
+        writeBody(out, ts);
+        if (gateway) {
+            if (telemetry) {
+                out.writeByte(']');
+            }
+            out.writeByte('}');
+        }
+    }
+
+    private void writeBody(ByteBuf out, long ts) {
+        if (ring != null) {
+            ring.write(out, ts);
+        } else {
+            body.write(out, new MessageContext(ts));
+        }
+    }
+
+    /**
+     * GatewayTelemetryMsg {msg = 1: TelemetryMsg {deviceName = 1, msg = 3: PostTelemetryMsg {tsKvList = 1: body}}} or
+     * GatewayAttributesMsg {msg = 1: AttributesMsg {deviceName = 1, msg = 2: PostAttributeMsg {body}}}.
+     * Such messages can be concatenated, the repeated msg fields are merged by the parser.
+     */
+    private void writeProtoGateway(ByteBuf out, String deviceName, long ts) {
+        ByteBuf content = PROTO_BODY.get().clear();
+        writeBody(content, ts);
+        int bodySize = content.readableBytes();
+        int nameSize = deviceName.length();
+        int postMsgSize = telemetry ? ProtoWriter.lengthDelimitedSize(bodySize) : bodySize;
+        int deviceMsgSize = ProtoWriter.lengthDelimitedSize(nameSize) + ProtoWriter.lengthDelimitedSize(postMsgSize);
+        ProtoWriter.writeLengthDelimited(out, 1, deviceMsgSize);
+        ProtoWriter.writeLengthDelimited(out, 1, nameSize);
+        PayloadWriter.writeAscii(out, deviceName);
+        ProtoWriter.writeLengthDelimited(out, telemetry ? 3 : 2, postMsgSize);
+        if (telemetry) {
+            ProtoWriter.writeLengthDelimited(out, 1, bodySize);
+        }
+        out.writeBytes(content, content.readerIndex(), bodySize);
+    }
+
+}
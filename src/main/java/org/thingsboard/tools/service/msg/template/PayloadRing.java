@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ring of payloads pre-generated from a template. Only the ts is patched when a payload is reused,
+ * so a message costs a single copy of the pre-encoded bytes.
+ */
+public class PayloadRing {
+
+    private final PayloadTemplate template;
+    private final byte[][] payloads;
+    private final int[] tsOffsets;
+    private final AtomicInteger position = new AtomicInteger();
+
+    public PayloadRing(PayloadTemplate template, int size) {
+        this.template = template;
+        payloads = new byte[size][];
+        tsOffsets = new int[size];
+        long ts = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            ByteBuf buf = Unpooled.buffer();
+            MessageContext ctx = new MessageContext(ts);
+            template.write(buf, ctx);
+            payloads[i] = ByteBufUtil.getBytes(buf);
+            tsOffsets[i] = ctx.getTsOffset();
+        }
+    }
+
+    public void write(ByteBuf out, long ts) {
+        int idx = Math.floorMod(position.getAndIncrement(), payloads.length);
+        int start = out.writerIndex();
+        out.writeBytes(payloads[idx]);
+        if (tsOffsets[idx] >= 0) {
+            template.patchTs(out, start + tsOffsets[idx], ts);
+        }
+    }
+
+}
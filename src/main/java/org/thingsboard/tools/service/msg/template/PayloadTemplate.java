@@ -0,0 +1,219 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Precompiled payload: literal byte segments interleaved with slots that write the variable values.
+ */
+public class PayloadTemplate {
+
+    public interface Slot {
+        void write(ByteBuf out, MessageContext ctx);
+    }
+
+    /**
+     * Writes the message ts with a width that does not change between messages, so it can be patched in place.
+     */
+    public interface TsSlot extends Slot {
+        void patch(ByteBuf buf, int index, long ts);
+    }
+
+    private final Object[] parts;
+    private final int datapoints;
+    private final TsSlot tsSlot;
+
+    PayloadTemplate(Object[] parts, int datapoints, TsSlot tsSlot) {
+        this.parts = parts;
+        this.datapoints = datapoints;
+        this.tsSlot = tsSlot;
+    }
+
+    /**
+     * Number of fields of the outermost object, i.e. telemetry values or attributes per message.
+     */
+    public int getDatapoints() {
+        return datapoints;
+    }
+
+    public void write(ByteBuf out, MessageContext ctx) {
+        int start = out.writerIndex();
+        for (Object part : parts) {
+            if (part instanceof byte[]) {
+                out.writeBytes((byte[]) part);
+            } else if (part == tsSlot) {
+                ctx.setTsOffset(out.writerIndex() - start);
+                tsSlot.write(out, ctx);
+            } else {
+                ((Slot) part).write(out, ctx);
+            }
+        }
+    }
+
+    /**
+     * Overwrites the ts written at the index by a previous {@link #write} with a new one.
+     */
+    public void patchTs(ByteBuf buf, int index, long ts) {
+        tsSlot.patch(buf, index, ts);
+    }
+
+    private static final TsSlot TS_SLOT = new TsSlot() {
+        @Override
+        public void write(ByteBuf out, MessageContext ctx) {
+            PayloadWriter.writeLong(out, ctx.getTs());
+        }
+
+        @Override
+        public void patch(ByteBuf buf, int index, long ts) {
+            // millisecond timestamps keep the same number of digits
+            PayloadWriter.setFixedLong(buf, index, ts, PayloadWriter.digits(ts));
+        }
+    };
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * JSON payload builder.
+     */
+    public static class Builder implements ValuesBuilder {
+
+        private final List<Object> parts = new ArrayList<>();
+        private final StringBuilder literal = new StringBuilder();
+        private boolean firstField;
+        private int depth;
+        private int datapoints;
+        private TsSlot tsSlot;
+
+        public Builder literal(String value) {
+            literal.append(value);
+            return this;
+        }
+
+        public Builder slot(Slot slot) {
+            flushLiteral();
+            parts.add(slot);
+            return this;
+        }
+
+        public Builder ts() {
+            return ts(TS_SLOT);
+        }
+
+        public Builder ts(TsSlot slot) {
+            tsSlot = slot;
+            return slot(slot);
+        }
+
+        /**
+         * Raw bytes, e.g. protobuf tags and length prefixes.
+         */
+        public Builder bytes(byte[] value) {
+            flushLiteral();
+            parts.add(value);
+            return this;
+        }
+
+        Builder countDatapoint() {
+            datapoints++;
+            return this;
+        }
+
+        public Builder beginObject() {
+            firstField = true;
+            depth++;
+            return literal("{");
+        }
+
+        public Builder endObject() {
+            depth--;
+            return literal("}");
+        }
+
+        /**
+         * Writes the key of the next field of the current object, the value is written by the following parts.
+         */
+        public Builder key(String name) {
+            if (!firstField) {
+                literal(",");
+            }
+            firstField = false;
+            if (depth == 1) {
+                datapoints++;
+            }
+            return literal("\"").literal(name).literal("\":");
+        }
+
+        public Builder field(String name, Slot slot) {
+            return key(name).slot(slot);
+        }
+
+        public Builder field(String name, String constant) {
+            return key(name).literal(constant);
+        }
+
+        @Override
+        public Builder intValue(String name, IntSupplier value) {
+            return field(name, (out, ctx) -> PayloadWriter.writeLong(out, value.getAsInt()));
+        }
+
+        @Override
+        public Builder intValue(String name, int value) {
+            return field(name, Integer.toString(value));
+        }
+
+        @Override
+        public Builder booleanValue(String name, BooleanSupplier value) {
+            return field(name, (out, ctx) -> PayloadWriter.writeBoolean(out, value.getAsBoolean()));
+        }
+
+        @Override
+        public Builder decimalValue(String name, DoubleSupplier value, int fractionDigits) {
+            return field(name, (out, ctx) -> PayloadWriter.writeDecimal(out, value.getAsDouble(), fractionDigits));
+        }
+
+        @Override
+        public Builder decimalStringValue(String name, DoubleSupplier value, int fractionDigits) {
+            return field(name, (out, ctx) -> {
+                out.writeByte('"');
+                PayloadWriter.writeDecimal(out, value.getAsDouble(), fractionDigits);
+                out.writeByte('"');
+            });
+        }
+
+        public PayloadTemplate build() {
+            flushLiteral();
+            return new PayloadTemplate(parts.toArray(), datapoints, tsSlot);
+        }
+
+        private void flushLiteral() {
+            if (literal.length() > 0) {
+                parts.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+                literal.setLength(0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Allocation free helpers that write JSON scalars as ASCII directly into a {@link ByteBuf}.
+ */
+public final class PayloadWriter {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private PayloadWriter() {
+    }
+
+    public static void writeLong(ByteBuf out, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.writeCharSequence(Long.toString(value), StandardCharsets.US_ASCII);
+                return;
+            }
+            out.writeByte('-');
+            value = -value;
+        }
+        int length = digits(value);
+        int index = out.writerIndex();
+        out.ensureWritable(length);
+        setFixedLong(out, index, value, length);
+        out.writerIndex(index + length);
+    }
+
+    /**
+     * Writes the value with exactly the given number of fraction digits, e.g. 12.5 with 3 digits is "12.500".
+     */
+    public static void writeDecimal(ByteBuf out, double value, int fractionDigits) {
+        long scaled = Math.round(value * POWERS_OF_TEN[fractionDigits]);
+        if (scaled < 0) {
+            out.writeByte('-');
+            scaled = -scaled;
+        }
+        writeLong(out, scaled / POWERS_OF_TEN[fractionDigits]);
+        if (fractionDigits > 0) {
+            out.writeByte('.');
+            int index = out.writerIndex();
+            out.ensureWritable(fractionDigits);
+            setFixedLong(out, index, scaled % POWERS_OF_TEN[fractionDigits], fractionDigits);
+            out.writerIndex(index + fractionDigits);
+        }
+    }
+
+    public static void writeBoolean(ByteBuf out, boolean value) {
+        out.writeCharSequence(value ? "true" : "false", StandardCharsets.US_ASCII);
+    }
+
+    public static void writeAscii(ByteBuf out, String value) {
+        out.writeCharSequence(value, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Overwrites the given number of digits at the index, left padding the value with zeros.
+     */
+    public static void setFixedLong(ByteBuf buf, int index, long value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buf.setByte(index + i, '0' + (int) (value % 10));
+            value /= 10;
+        }
+    }
+
+    static int digits(long value) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+}
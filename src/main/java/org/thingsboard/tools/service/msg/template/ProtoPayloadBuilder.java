@@ -0,0 +1,241 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+import static org.thingsboard.tools.service.msg.template.ProtoWriter.FIXED32;
+import static org.thingsboard.tools.service.msg.template.ProtoWriter.FIXED64;
+import static org.thingsboard.tools.service.msg.template.ProtoWriter.LENGTH_DELIMITED;
+import static org.thingsboard.tools.service.msg.template.ProtoWriter.VARINT;
+import static org.thingsboard.tools.service.msg.template.ProtoWriter.tag;
+
+/**
+ * Protobuf payload builder. The values are encoded either as the fields of a device profile schema, numbered in the
+ * order they were added, or as the KeyValueProto entries of the ThingsBoard gateway API.
+ * <p>
+ * Device schema fields use fixed size encodings only (sfixed32, bool, double, sfixed64 ts), so the length of the
+ * values message is known when the template is built and the ts can be patched in place.
+ */
+public class ProtoPayloadBuilder implements ValuesBuilder {
+
+    // ThingsBoard transport KeyValueType
+    private static final int BOOLEAN_V = 0;
+    private static final int LONG_V = 1;
+    private static final int DOUBLE_V = 2;
+
+    private enum Type {
+        INT("sfixed32", 4),
+        BOOL("bool", 1),
+        DOUBLE("double", 8);
+
+        private final String protoType;
+        private final int size;
+
+        Type(String protoType, int size) {
+            this.protoType = protoType;
+            this.size = size;
+        }
+    }
+
+    private interface ValueWriter {
+        void write(ByteBuf out);
+    }
+
+    private record Field(String name, Type type, ValueWriter writer, IntSupplier intValue) {
+    }
+
+    private final List<Field> fields = new ArrayList<>();
+
+    @Override
+    public ProtoPayloadBuilder intValue(String name, IntSupplier value) {
+        fields.add(new Field(name, Type.INT, out -> out.writeIntLE(value.getAsInt()), value));
+        return this;
+    }
+
+    @Override
+    public ProtoPayloadBuilder intValue(String name, int value) {
+        return intValue(name, () -> value);
+    }
+
+    @Override
+    public ProtoPayloadBuilder booleanValue(String name, BooleanSupplier value) {
+        return add(name, Type.BOOL, out -> out.writeByte(value.getAsBoolean() ? 1 : 0));
+    }
+
+    @Override
+    public ProtoPayloadBuilder decimalValue(String name, DoubleSupplier value, int fractionDigits) {
+        return add(name, Type.DOUBLE, out -> out.writeDoubleLE(value.getAsDouble()));
+    }
+
+    @Override
+    public ProtoPayloadBuilder decimalStringValue(String name, DoubleSupplier value, int fractionDigits) {
+        return decimalValue(name, value, fractionDigits);
+    }
+
+    private ProtoPayloadBuilder add(String name, Type type, ValueWriter writer) {
+        fields.add(new Field(name, type, writer, null));
+        return this;
+    }
+
+    /**
+     * Device telemetry {ts = 1, values = 2 {fields}} or device attributes {fields}.
+     */
+    public PayloadTemplate buildSchemaMessage(boolean telemetry) {
+        PayloadTemplate.Builder builder = PayloadTemplate.builder();
+        if (telemetry) {
+            int valuesSize = 0;
+            for (int i = 0; i < fields.size(); i++) {
+                valuesSize += tagSize(i + 1) + fields.get(i).type.size;
+            }
+            builder.bytes(bytes(out -> out.writeByte(tag(1, FIXED64))))
+                    .ts(SFIXED64_TS)
+                    .bytes(bytes(out -> ProtoWriter.writeLengthDelimited(out, 2, valuesSize)));
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            int number = i + 1;
+            builder.bytes(bytes(out -> ProtoWriter.writeVarint(out, tag(number, wireType(field.type)))))
+                    .slot((out, ctx) -> field.writer.write(out))
+                    .countDatapoint();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Content of the gateway TsKvListProto {ts = 1, kv = 2} for telemetry or PostAttributeMsg {kv = 1} for
+     * attributes, the enclosing gateway messages are written by {@link MessageTemplate}.
+     */
+    public PayloadTemplate buildKeyValues(boolean telemetry) {
+        PayloadTemplate.Builder builder = PayloadTemplate.builder();
+        int kvField = 1;
+        if (telemetry) {
+            builder.bytes(bytes(out -> out.writeByte(tag(1, VARINT)))).ts(VARINT_TS);
+            kvField = 2;
+        }
+        for (Field field : fields) {
+            byte[] key = field.name.getBytes(StandardCharsets.UTF_8);
+            int keyValueType = field.type == Type.BOOL ? BOOLEAN_V : field.type == Type.INT ? LONG_V : DOUBLE_V;
+            // key = 1, type = 2, then the value field
+            byte[] prefix = bytes(out -> {
+                ProtoWriter.writeLengthDelimited(out, 1, key.length);
+                out.writeBytes(key);
+                out.writeByte(tag(2, VARINT));
+                ProtoWriter.writeVarint(out, keyValueType);
+            });
+            int entryField = kvField;
+            builder.slot((out, ctx) -> writeKeyValue(out, entryField, prefix, field)).countDatapoint();
+        }
+        return builder.build();
+    }
+
+    private static void writeKeyValue(ByteBuf out, int entryField, byte[] prefix, Field field) {
+        switch (field.type) {
+            case BOOL -> {
+                ProtoWriter.writeLengthDelimited(out, entryField, prefix.length + 2);
+                out.writeBytes(prefix).writeByte(tag(3, VARINT));
+                field.writer.write(out);
+            }
+            case DOUBLE -> {
+                ProtoWriter.writeLengthDelimited(out, entryField, prefix.length + 9);
+                out.writeBytes(prefix).writeByte(tag(5, FIXED64));
+                field.writer.write(out);
+            }
+            case INT -> {
+                // long_v is a varint, so the length of the entry depends on the value
+                long value = field.intValue.getAsInt();
+                ProtoWriter.writeLengthDelimited(out, entryField, prefix.length + 1 + ProtoWriter.varintSize(value));
+                out.writeBytes(prefix).writeByte(tag(4, VARINT));
+                ProtoWriter.writeVarint(out, value);
+            }
+        }
+    }
+
+    /**
+     * Proto schema of {@link #buildSchemaMessage}, as configured in the device profile.
+     */
+    public String toSchema(String packageName, String messageName, boolean telemetry) {
+        StringBuilder schema = new StringBuilder("syntax =\"proto3\";\npackage ").append(packageName).append(";\n\n");
+        schema.append("message ").append(messageName).append(" {\n");
+        String indent = "  ";
+        if (telemetry) {
+            schema.append("  optional sfixed64 ts = 1;\n  Values values = 2;\n\n  message Values {\n");
+            indent = "    ";
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            schema.append(indent).append("optional ").append(field.type.protoType).append(' ').append(field.name)
+                    .append(" = ").append(i + 1).append(";\n");
+        }
+        if (telemetry) {
+            schema.append("  }\n");
+        }
+        return schema.append("}\n").toString();
+    }
+
+    private static int wireType(Type type) {
+        return switch (type) {
+            case INT -> FIXED32;
+            case BOOL -> VARINT;
+            case DOUBLE -> FIXED64;
+        };
+    }
+
+    private static int tagSize(int number) {
+        return ProtoWriter.varintSize(tag(number, LENGTH_DELIMITED));
+    }
+
+    private static byte[] bytes(ValueWriter writer) {
+        ByteBuf buf = Unpooled.buffer();
+        writer.write(buf);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static final PayloadTemplate.TsSlot SFIXED64_TS = new PayloadTemplate.TsSlot() {
+        @Override
+        public void write(ByteBuf out, MessageContext ctx) {
+            out.writeLongLE(ctx.getTs());
+        }
+
+        @Override
+        public void patch(ByteBuf buf, int index, long ts) {
+            buf.setLongLE(index, ts);
+        }
+    };
+
+    private static final PayloadTemplate.TsSlot VARINT_TS = new PayloadTemplate.TsSlot() {
+        @Override
+        public void write(ByteBuf out, MessageContext ctx) {
+            ProtoWriter.writeVarint(out, ctx.getTs());
+        }
+
+        @Override
+        public void patch(ByteBuf buf, int index, long ts) {
+            // millisecond timestamps keep the same varint size
+            ProtoWriter.setVarint(buf, index, ts, ProtoWriter.varintSize(ts));
+        }
+    };
+
+}
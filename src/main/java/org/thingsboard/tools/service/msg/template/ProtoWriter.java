@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Allocation free helpers that write the protobuf wire format directly into a {@link ByteBuf}.
+ */
+public final class ProtoWriter {
+
+    public static final int VARINT = 0;
+    public static final int FIXED64 = 1;
+    public static final int LENGTH_DELIMITED = 2;
+    public static final int FIXED32 = 5;
+
+    private ProtoWriter() {
+    }
+
+    public static int tag(int field, int wireType) {
+        return field << 3 | wireType;
+    }
+
+    public static void writeTag(ByteBuf out, int field, int wireType) {
+        writeVarint(out, tag(field, wireType));
+    }
+
+    public static void writeVarint(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    /**
+     * Overwrites a varint of the given width at the index. Values encoded with fewer bytes are padded with empty
+     * continuation bytes, which every protobuf parser accepts.
+     */
+    public static void setVarint(ByteBuf buf, int index, long value, int width) {
+        for (int i = 0; i < width - 1; i++) {
+            buf.setByte(index + i, (int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.setByte(index + width - 1, (int) (value & 0x7F));
+    }
+
+    /**
+     * Writes the tag and the length prefix of a length delimited field, the content is written by the caller.
+     */
+    public static void writeLengthDelimited(ByteBuf out, int field, int length) {
+        writeTag(out, field, LENGTH_DELIMITED);
+        writeVarint(out, length);
+    }
+
+    /**
+     * Size of a length delimited field with the given content length, including its tag. Valid for field numbers
+     * below 16, whose tag is a single byte.
+     */
+    public static int lengthDelimitedSize(int length) {
+        return 1 + varintSize(length) + length;
+    }
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Typed telemetry values or attributes of a message, encoded as JSON or protobuf depending on the builder.
+ */
+public interface ValuesBuilder {
+
+    ValuesBuilder intValue(String name, IntSupplier value);
+
+    ValuesBuilder intValue(String name, int value);
+
+    ValuesBuilder booleanValue(String name, BooleanSupplier value);
+
+    ValuesBuilder decimalValue(String name, DoubleSupplier value, int fractionDigits);
+
+    /**
+     * A decimal sent as a JSON string, protobuf carries it as a double.
+     */
+    ValuesBuilder decimalStringValue(String name, DoubleSupplier value, int fractionDigits);
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.thingsboard.tools.service.shared.RestClientService;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Legacy scheduler that sends all messages of a second at once at the beginning of the second.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test", value = "rateScheduler", havingValue = "BURST")
+public class BurstRateScheduler implements RateScheduler {
+
+    @Autowired
+    private RestClientService restClientService;
+
+    @Override
+    public Future<?> start(RateFunction rate, int durationInSec, RateListener listener) {
+        long startNanos = System.nanoTime();
+        AtomicInteger iterationNumber = new AtomicInteger();
+        long[] msgIdx = new long[1];
+        return restClientService.getScheduler().scheduleAtFixedRate(() -> {
+            int iteration = iterationNumber.incrementAndGet();
+            if (iteration > durationInSec) {
+                return;
+            }
+            long intendedOffset = (iteration - 1) * NANOS_PER_SECOND;
+            long msgCount = Math.round(rate.getRate(intendedOffset));
+            listener.onIterationStart(iteration);
+            for (long i = 0; i < msgCount; i++) {
+                long idx = msgIdx[0]++;
+                try {
+                    listener.onMessage(iteration, idx, startNanos + intendedOffset);
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to send message {}", iteration, idx, e);
+                }
+            }
+            listener.onIterationEnd(iteration);
+        }, 0, 1, TimeUnit.SECONDS);
+    }
+
+}
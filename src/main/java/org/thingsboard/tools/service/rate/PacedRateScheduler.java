@@ -0,0 +1,123 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop scheduler that spreads the messages of each second evenly. The intended send time of every message is
+ * derived from the test start, so a late send never shifts the following ones: the scheduler catches up instead.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test", value = "rateScheduler", havingValue = "PACED", matchIfMissing = true)
+public class PacedRateScheduler implements RateScheduler {
+
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("rate-scheduler"));
+
+    @PreDestroy
+    public void destroy() {
+        if (!executor.isShutdown()) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public Future<?> start(RateFunction rate, int durationInSec, RateListener listener) {
+        return executor.submit(() -> run(rate, durationInSec, listener));
+    }
+
+    void run(RateFunction rate, int durationInSec, RateListener listener) {
+        long startNanos = System.nanoTime();
+        long durationNanos = durationInSec * NANOS_PER_SECOND;
+        // kept as double so that the rounding of the send interval does not accumulate into a drift
+        double nextOffsetNanos = 0;
+        long msgIdx = 0;
+        int iteration = 0;
+        while (true) {
+            long intendedOffset = (long) nextOffsetNanos;
+            if (intendedOffset >= durationNanos) {
+                break;
+            }
+            int second = (int) (intendedOffset / NANOS_PER_SECOND);
+            while (iteration <= second) {
+                if (!awaitNanos(startNanos + iteration * NANOS_PER_SECOND)) {
+                    return;
+                }
+                if (iteration > 0) {
+                    listener.onIterationEnd(iteration);
+                }
+                listener.onIterationStart(++iteration);
+            }
+            double mps = rate.getRate(intendedOffset);
+            if (mps <= 0) {
+                nextOffsetNanos = (second + 1) * NANOS_PER_SECOND;
+                continue;
+            }
+            long intendedNanos = startNanos + intendedOffset;
+            if (!awaitNanos(intendedNanos)) {
+                return;
+            }
+            long idx = msgIdx++;
+            try {
+                listener.onMessage(iteration, idx, intendedNanos);
+            } catch (Exception e) {
+                log.warn("[{}] Failed to send message {}", iteration, idx, e);
+            }
+            nextOffsetNanos += NANOS_PER_SECOND / mps;
+        }
+        while (iteration < durationInSec) {
+            if (!awaitNanos(startNanos + iteration * NANOS_PER_SECOND)) {
+                return;
+            }
+            if (iteration > 0) {
+                listener.onIterationEnd(iteration);
+            }
+            listener.onIterationStart(++iteration);
+        }
+        if (iteration > 0 && awaitNanos(startNanos + durationNanos)) {
+            listener.onIterationEnd(iteration);
+        }
+    }
+
+    private static boolean awaitNanos(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+}
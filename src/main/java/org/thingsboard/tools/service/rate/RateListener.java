@@ -0,0 +1,30 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+/**
+ * Receives the events produced by a {@link RateScheduler}. All callbacks are invoked from the scheduler thread
+ * and must not block, otherwise the following sends will be delayed.
+ */
+public interface RateListener {
+
+    void onIterationStart(int iteration);
+
+    void onMessage(int iteration, long msgIdx, long intendedNanos);
+
+    void onIterationEnd(int iteration);
+
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public interface RateScheduler {
+
+    long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Starts sending messages according to the rate function for the given duration.
+     * Iterations are numbered from 1 and each of them covers one second of the schedule.
+     * Cancelling the returned future stops the schedule.
+     */
+    Future<?> start(RateFunction rate, int durationInSec, RateListener listener);
+
+}
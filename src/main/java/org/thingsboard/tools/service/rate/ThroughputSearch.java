@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import lombok.Getter;
+
+/**
+ * Search of the maximum sustainable rate. The rate is raised by a constant factor until the first trial that
+ * breaches the SLO, then the interval between the last passed and the first failed rate is bisected until it is
+ * narrower than the requested precision.
+ */
+public class ThroughputSearch {
+
+    private final double stepFactor;
+    private final long maxRate;
+    private final double precisionPercent;
+
+    private long nextRate;
+    // highest rate that passed and lowest rate that failed so far, 0 if none yet
+    @Getter
+    private long sustainableRate;
+    private long failedRate;
+    private boolean done;
+
+    public ThroughputSearch(long startRate, double stepFactor, long maxRate, double precisionPercent) {
+        if (startRate <= 0 || stepFactor <= 1 || maxRate < startRate || precisionPercent <= 0) {
+            throw new IllegalArgumentException("Invalid throughput search parameters: start " + startRate + ", step factor "
+                    + stepFactor + ", max " + maxRate + ", precision " + precisionPercent + "%");
+        }
+        this.stepFactor = stepFactor;
+        this.maxRate = maxRate;
+        this.precisionPercent = precisionPercent;
+        this.nextRate = startRate;
+    }
+
+    /**
+     * @return rate of the next trial, or -1 once the search is complete
+     */
+    public long getNextRate() {
+        return done ? -1 : nextRate;
+    }
+
+    public boolean isBisecting() {
+        return failedRate > 0;
+    }
+
+    public void onTrial(long rate, boolean passed) {
+        if (passed) {
+            sustainableRate = Math.max(sustainableRate, rate);
+        } else {
+            failedRate = failedRate == 0 ? rate : Math.min(failedRate, rate);
+        }
+        if (failedRate == 0) {
+            if (rate >= maxRate) {
+                done = true;
+            } else {
+                nextRate = Math.min(maxRate, Math.max(rate + 1, Math.round(rate * stepFactor)));
+            }
+            return;
+        }
+        long low = sustainableRate;
+        long high = failedRate;
+        if (high - low <= Math.max(1, Math.round(high * precisionPercent / 100))) {
+            done = true;
+        } else {
+            nextRate = (low + high) / 2;
+        }
+    }
+
+}
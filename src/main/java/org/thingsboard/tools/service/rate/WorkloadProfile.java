@@ -0,0 +1,157 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.Data;
+import lombok.Getter;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multi-stage workload: the target rate of the test is defined by a sequence of stages, each with its own duration
+ * and rate function. Loaded from a YAML file:
+ * <pre>
+ * name: knee
+ * stages:
+ *   - name: warm-up
+ *     type: RAMP
+ *     duration: 60
+ *     rate: 1000
+ *   - name: ladder
+ *     type: STEP
+ *     duration: 600
+ *     rate: 10000
+ *     steps: 10
+ * </pre>
+ */
+public class WorkloadProfile implements RateFunction {
+
+    private static final ObjectMapper mapper = JsonMapper.builder()
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build();
+
+    @Data
+    static class Definition {
+        private String name;
+        private List<WorkloadStage> stages;
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final List<WorkloadStage> stages;
+    private final double[] fromRates;
+    private final int[] startSeconds;
+    @Getter
+    private final int durationInSec;
+
+    public WorkloadProfile(String name, List<WorkloadStage> stages) {
+        if (stages == null || stages.isEmpty()) {
+            throw new IllegalArgumentException("Workload profile " + name + " has no stages");
+        }
+        this.name = name;
+        this.stages = List.copyOf(stages);
+        this.fromRates = new double[stages.size()];
+        this.startSeconds = new int[stages.size()];
+        double previousRate = 0;
+        int start = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            WorkloadStage stage = stages.get(i);
+            stage.validate();
+            if (stage.getName() == null) {
+                stage.setName("stage-" + (i + 1));
+            }
+            fromRates[i] = stage.getFrom() != null ? stage.getFrom() : previousRate;
+            startSeconds[i] = start;
+            previousRate = stage.getEndRate(fromRates[i]);
+            start += stage.getDuration();
+        }
+        this.durationInSec = start;
+    }
+
+    /**
+     * Loads the profile from a file, or from the classpath if there is no such file.
+     */
+    public static WorkloadProfile load(String location) throws IOException {
+        Path file = Paths.get(location);
+        try (InputStream in = Files.exists(file) ? Files.newInputStream(file)
+                : WorkloadProfile.class.getClassLoader().getResourceAsStream(location)) {
+            if (in == null) {
+                throw new FileNotFoundException("Workload profile " + location + " not found");
+            }
+            Definition definition = mapper.convertValue(new Yaml().load(in), Definition.class);
+            return new WorkloadProfile(definition.getName() != null ? definition.getName() : location, definition.getStages());
+        }
+    }
+
+    @Override
+    public double getRate(long elapsedNanos) {
+        double seconds = (double) elapsedNanos / RateScheduler.NANOS_PER_SECOND;
+        int idx = getStageIndex(elapsedNanos);
+        return stages.get(idx).getRate(seconds - startSeconds[idx], fromRates[idx]);
+    }
+
+    /**
+     * @return index of the stage running at the given time, the last stage once the profile is over
+     */
+    public int getStageIndex(long elapsedNanos) {
+        long second = elapsedNanos / RateScheduler.NANOS_PER_SECOND;
+        for (int i = stages.size() - 1; i > 0; i--) {
+            if (second >= startSeconds[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    public int getStartSecond(int stageIdx) {
+        return startSeconds[stageIdx];
+    }
+
+    /**
+     * Average of the target rate over the seconds of the stage.
+     */
+    public double getAverageRate(int stageIdx) {
+        WorkloadStage stage = stages.get(stageIdx);
+        double sum = 0;
+        for (int second = 0; second < stage.getDuration(); second++) {
+            sum += stage.getRate(second, fromRates[stageIdx]);
+        }
+        return sum / stage.getDuration();
+    }
+
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>(stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            WorkloadStage stage = stages.get(i);
+            lines.add(String.format("%d. %s %s %ds, %.0f -> %.0f msg/s", i + 1, stage.getName(), stage.getType(),
+                    stage.getDuration(), stage.getRate(0, fromRates[i]), stage.getEndRate(fromRates[i])));
+        }
+        return lines;
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import lombok.Data;
+
+/**
+ * Stage of a {@link WorkloadProfile}. The rate of the stage is a function of the seconds elapsed since the stage start.
+ * Rates are in messages per second.
+ */
+@Data
+public class WorkloadStage {
+
+    private String name;
+    private WorkloadStageType type = WorkloadStageType.HOLD;
+    private int duration;
+    // target rate of the stage
+    private double rate;
+    // start rate of RAMP and STEP and base rate of SPIKE, the end rate of the previous stage if not set
+    private Double from;
+    private int steps = 5;
+    // start of the spike within the stage, the spike is centered if not set
+    private Integer spikeStart;
+    private int spikeDuration = 10;
+    private double amplitude;
+    private int period = 60;
+
+    void validate() {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Duration of the workload stage " + name + " must be positive");
+        }
+        if (rate < 0 || (from != null && from < 0)) {
+            throw new IllegalArgumentException("Rate of the workload stage " + name + " must not be negative");
+        }
+        if (type == WorkloadStageType.STEP && steps <= 0) {
+            throw new IllegalArgumentException("Steps of the workload stage " + name + " must be positive");
+        }
+        if (type == WorkloadStageType.SINE && period <= 0) {
+            throw new IllegalArgumentException("Period of the workload stage " + name + " must be positive");
+        }
+    }
+
+    /**
+     * @param seconds  time elapsed since the stage start
+     * @param fromRate start rate of the stage, resolved from the previous stage if not configured
+     */
+    double getRate(double seconds, double fromRate) {
+        switch (type) {
+            case RAMP:
+                return fromRate + (rate - fromRate) * seconds / duration;
+            case STEP:
+                int step = Math.min(steps - 1, (int) (seconds * steps / duration));
+                return fromRate + (rate - fromRate) * (step + 1) / steps;
+            case SPIKE:
+                int start = spikeStart != null ? spikeStart : Math.max(0, (duration - spikeDuration) / 2);
+                return seconds >= start && seconds < start + spikeDuration ? rate : fromRate;
+            case SINE:
+                return Math.max(0, rate + amplitude * Math.sin(2 * Math.PI * seconds / period));
+            default:
+                return rate;
+        }
+    }
+
+    /**
+     * Rate at the end of the stage, the start rate of the next stage unless it sets its own.
+     */
+    double getEndRate(double fromRate) {
+        return type == WorkloadStageType.SPIKE ? fromRate : rate;
+    }
+
+}
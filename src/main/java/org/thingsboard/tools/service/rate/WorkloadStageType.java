@@ -0,0 +1,31 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+public enum WorkloadStageType {
+
+    // constant rate, also used for soak stages
+    HOLD,
+    // linear ramp from the "from" rate to the target rate
+    RAMP,
+    // ladder of "steps" equal steps from the "from" rate up to the target rate
+    STEP,
+    // "from" rate with a burst at the target rate for "spikeDuration" seconds
+    SPIKE,
+    // target rate modulated by a sine wave of "amplitude" and "period" seconds
+    SINE
+
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.tools.service.shared.BlockingExecutorMode;
+import org.thingsboard.tools.service.shared.BoundedThreadPerTaskExecutor;
+import org.thingsboard.tools.service.shared.RestClientService;
+import org.thingsboard.tools.service.stats.LatencyStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fires server-side RPCs at the simulated MQTT devices through the REST API at a constant rate while the device load
+ * runs. The devices answer the requests themselves, see {@code BaseMqttAPITest}. Two-way RPCs are measured from the
+ * send time intended by the schedule to the response of the REST call, which returns once the device has responded,
+ * one-way RPCs until the server confirms the delivery. Calls that time out on the server are counted separately
+ * from the other failures.
+ * <p>
+ * The blocking REST calls run on an executor of the driver with a thread for every call in flight, so neither the
+ * shared REST executor limits the rate nor a full executor ever blocks the shared scheduler thread that paces the calls.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test.rpc", value = "enabled", havingValue = "true")
+public class RpcLoadDriver {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final long TICK_MS = 10;
+
+    @Value("${rest.url}")
+    private String restUrl;
+    @Value("${test.rpc.rate:10}")
+    private double rate;
+    @Value("${test.rpc.twoWayPercent:100}")
+    private double twoWayPercent;
+    @Value("${test.rpc.timeout:10000}")
+    private int timeoutMs;
+    @Value("${test.rpc.responseDelay:0}")
+    @Getter
+    private int responseDelayMs;
+    @Value("${test.rpc.devices:1000}")
+    @Getter
+    private int deviceCount;
+    @Value("${test.rpc.maxInFlight:1000}")
+    private int maxInFlight;
+    @Value("${test.rpc.logInterval:5}")
+    private int logIntervalInSec;
+    @Value("${rest.executor.mode:POOL}")
+    private BlockingExecutorMode executorMode;
+
+    @Autowired
+    private RestClientService restClientService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Getter
+    private final LatencyStats twoWayStats = new LatencyStats("RPC two-way", "ms");
+    @Getter
+    private final LatencyStats oneWayStats = new LatencyStats("RPC one-way", "ms");
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong success = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private Semaphore inFlight;
+    private ExecutorService executor;
+    private List<DeviceId> deviceIds;
+    private ScheduledFuture<?> tickFuture;
+    private ScheduledFuture<?> logFuture;
+    private long startNanos;
+    private long scheduled;
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+        ThreadFactory virtualThreads = executorMode == BlockingExecutorMode.VIRTUAL
+                ? BoundedThreadPerTaskExecutor.virtualThreadFactory("RPC") : null;
+        // a call holds its executor permit a bit longer than its in-flight permit, twice the permits never block
+        executor = virtualThreads != null ? new BoundedThreadPerTaskExecutor(virtualThreads, 2 * maxInFlight)
+                : Executors.newFixedThreadPool(maxInFlight, ThingsBoardThreadFactory.forName("rpc"));
+        FunctionCounter.builder("perf.rpc.requests", success, AtomicLong::get)
+                .tag("result", "success")
+                .description("Server-side RPCs sent to the devices")
+                .register(meterRegistry);
+        FunctionCounter.builder("perf.rpc.requests", timeouts, AtomicLong::get)
+                .tag("result", "timeout")
+                .register(meterRegistry);
+        FunctionCounter.builder("perf.rpc.requests", failed, AtomicLong::get)
+                .tag("result", "failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("perf.rpc.requests", skipped, AtomicLong::get)
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        FunctionCounter.builder("perf.rpc.received", received, AtomicLong::get)
+                .description("RPC requests received by the simulated devices")
+                .register(meterRegistry);
+    }
+
+    public synchronized void start(List<DeviceId> deviceIds) {
+        if (deviceIds.isEmpty()) {
+            log.warn("No devices to send the RPCs to");
+            return;
+        }
+        this.deviceIds = deviceIds;
+        sent.set(0);
+        success.set(0);
+        timeouts.set(0);
+        failed.set(0);
+        skipped.set(0);
+        received.set(0);
+        scheduled = 0;
+        startNanos = System.nanoTime();
+        tickFuture = restClientService.getScheduler().scheduleAtFixedRate(this::tick, 0, TICK_MS, TimeUnit.MILLISECONDS);
+        logFuture = restClientService.getLogScheduler().scheduleAtFixedRate(new Runnable() {
+            private long lastSuccess;
+
+            @Override
+            public void run() {
+                long successNow = success.get();
+                log.info("RPC: {} calls/s, sent: {}, success: {}, timeouts: {}, failed: {}, skipped: {}, received by devices: {}",
+                        (successNow - lastSuccess) / logIntervalInSec, sent.get(), successNow, timeouts.get(), failed.get(),
+                        skipped.get(), received.get());
+                lastSuccess = successNow;
+            }
+        }, logIntervalInSec, logIntervalInSec, TimeUnit.SECONDS);
+        log.info("Sending {} RPC/s ({}% two-way) to {} devices, timeout {} ms", rate, twoWayPercent, deviceIds.size(), timeoutMs);
+    }
+
+    /**
+     * Stops sending and waits for the calls in flight.
+     *
+     * @return summary of the sent calls
+     */
+    public synchronized Map<String, Object> stop() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (tickFuture == null) {
+            return summary;
+        }
+        cancelTasks();
+        try {
+            if (inFlight.tryAcquire(maxInFlight, timeoutMs + 5000L, TimeUnit.MILLISECONDS)) {
+                inFlight.release(maxInFlight);
+            } else {
+                log.warn("{} RPCs are still in flight", maxInFlight - inFlight.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        twoWayStats.nextInterval();
+        oneWayStats.nextInterval();
+        summary.put("rate", rate);
+        summary.put("twoWayPercent", twoWayPercent);
+        summary.put("responseDelayMs", responseDelayMs);
+        summary.put("sent", sent.get());
+        summary.put("success", success.get());
+        summary.put("timeouts", timeouts.get());
+        summary.put("failed", failed.get());
+        summary.put("skipped", skipped.get());
+        summary.put("receivedByDevices", received.get());
+        log.info("RPC completed. Sent: {}, success: {}, timeouts: {}, failed: {}, skipped: {}",
+                sent.get(), success.get(), timeouts.get(), failed.get(), skipped.get());
+        return summary;
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        cancelTasks();
+        executor.shutdownNow();
+    }
+
+    private void cancelTasks() {
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+            tickFuture = null;
+        }
+        if (logFuture != null) {
+            logFuture.cancel(false);
+            logFuture = null;
+        }
+    }
+
+    /**
+     * Called by the simulated devices for every RPC request they receive.
+     */
+    public void onRequestReceived() {
+        received.incrementAndGet();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Sends the calls that are due since the start, each one with its own intended send time, so a stalled scheduler
+     * shows up in the latency instead of lowering the rate.
+     */
+    private void tick() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long due = (long) (elapsedNanos * rate / TimeUnit.SECONDS.toNanos(1));
+        while (scheduled < due) {
+            long idx = scheduled++;
+            long intendedNanos = startNanos + (long) (idx * TimeUnit.SECONDS.toNanos(1) / rate);
+            if (!inFlight.tryAcquire()) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            DeviceId deviceId = deviceIds.get((int) (idx % deviceIds.size()));
+            boolean twoWay = ThreadLocalRandom.current().nextDouble(100) < twoWayPercent;
+            try {
+                executor.execute(() -> send(deviceId, twoWay, intendedNanos));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                skipped.incrementAndGet();
+            }
+        }
+    }
+
+    private void send(DeviceId deviceId, boolean twoWay, long intendedNanos) {
+        try {
+            ObjectNode request = mapper.createObjectNode();
+            request.put("method", "perfTest");
+            request.putObject("params").put("ts", System.currentTimeMillis());
+            request.put("timeout", timeoutMs);
+            String url = restUrl + "/api/plugins/rpc/" + (twoWay ? "twoway/" : "oneway/") + deviceId.getId();
+            sent.incrementAndGet();
+            long startNanos = System.nanoTime();
+            restClientService.getRestClient().getRestTemplate().postForObject(url, request, JsonNode.class);
+            long endNanos = System.nanoTime();
+            LatencyStats stats = twoWay ? twoWayStats : oneWayStats;
+            stats.record(TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos));
+            stats.recordCorrected(TimeUnit.NANOSECONDS.toMillis(endNanos - intendedNanos));
+            success.incrementAndGet();
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode().value() == HttpStatus.REQUEST_TIMEOUT.value()
+                    || e.getStatusCode().value() == HttpStatus.GATEWAY_TIMEOUT.value()) {
+                timeouts.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+                log.debug("[{}] RPC failed: {}", deviceId, e.getStatusCode());
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.debug("[{}] RPC failed", deviceId, e);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.thingsboard.tools.service.shared.RestClientService;
+import org.thingsboard.tools.service.shared.TestRunStats;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies the throughput on the server side. The counting root rule chain installed by {@link RuleChainManager}
+ * saves the number of messages processed every second as "messageCount_&lt;service id&gt;" telemetry of the tenant.
+ * The verifier periodically sums these counts since the test start and compares them with the messages
+ * acknowledged by the transport on the client side: the difference is the backlog queued in ThingsBoard. A backlog
+ * that does not drain once the load stops means the messages were lost after they were acknowledged.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test.verify", value = "enabled", havingValue = "true")
+public class RuleChainCounterVerifier {
+
+    private static final String COUNTER_KEY_PREFIX = "messageCount";
+
+    @Value("${rest.url}")
+    private String restUrl;
+    @Value("${test.verify.interval:5}")
+    private int pollIntervalInSec;
+    @Value("${test.verify.drainTimeout:60}")
+    private int drainTimeoutInSec;
+    @Value("${test.updateRootRuleChain:false}")
+    private boolean updateRootRuleChain;
+
+    @Autowired
+    private RestClientService restClientService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String tenantId;
+    private volatile TestRunStats runStats;
+    private volatile long startTs;
+    private volatile long processed;
+    private volatile long sent;
+    private volatile double processedRate;
+    private long lastPollTs;
+    private ScheduledFuture<?> pollFuture;
+
+    @PostConstruct
+    public void init() {
+        if (!updateRootRuleChain) {
+            log.warn("Root rule chain is not replaced by the counting one (test.updateRootRuleChain is false), "
+                    + "the root rule chain of the tenant must save the counts of a message count node itself");
+        }
+        Gauge.builder("perf.ruleengine.processed.rate", this, RuleChainCounterVerifier::getProcessedRate)
+                .description("Messages per second counted by the root rule chain")
+                .register(meterRegistry);
+        Gauge.builder("perf.ruleengine.backlog", this, RuleChainCounterVerifier::getBacklog)
+                .description("Messages acknowledged by the transport and not yet counted by the root rule chain")
+                .register(meterRegistry);
+    }
+
+    public synchronized void start(TestRunStats runStats) {
+        this.runStats = runStats;
+        if (tenantId == null) {
+            JsonNode user = restClientService.getRestClient().getRestTemplate().getForObject(restUrl + "/api/auth/user", JsonNode.class);
+            tenantId = user.get("tenantId").get("id").asText();
+        }
+        startTs = System.currentTimeMillis();
+        lastPollTs = startTs;
+        processed = 0;
+        sent = 0;
+        processedRate = 0;
+        pollFuture = restClientService.getLogScheduler().scheduleAtFixedRate(() -> {
+            try {
+                poll();
+                log.info("Rule engine processed rate: {} msg/s, processed: {}, sent: {}, backlog: {}",
+                        Math.round(processedRate), processed, sent, getBacklog());
+            } catch (Exception e) {
+                log.warn("Failed to read the rule chain message counters", e);
+            }
+        }, pollIntervalInSec, pollIntervalInSec, TimeUnit.SECONDS);
+        log.info("Verifying the processed messages with the rule chain counters of tenant {}", tenantId);
+    }
+
+    /**
+     * Reads the counters processed since the start and updates the backlog.
+     */
+    public synchronized void poll() {
+        if (runStats == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long sentNow = runStats.getSuccess().get();
+        long processedNow = readProcessed(startTs, now);
+        if (now > lastPollTs) {
+            processedRate = Math.max(0, processedNow - processed) * 1000.0 / (now - lastPollTs);
+        }
+        processed = processedNow;
+        sent = sentNow;
+        lastPollTs = now;
+    }
+
+    public double getProcessedRate() {
+        return processedRate;
+    }
+
+    /**
+     * @return messages acknowledged by the transport, but not counted by the rule chain at the last poll
+     */
+    public long getBacklog() {
+        return Math.max(0, sent - processed);
+    }
+
+    /**
+     * Stops polling once the backlog is drained or the drain timeout expires.
+     *
+     * @return summary of the verification for the run report
+     */
+    public Map<String, Object> stop() throws InterruptedException {
+        if (pollFuture != null) {
+            pollFuture.cancel(false);
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(drainTimeoutInSec);
+        poll();
+        long backlogAtEnd = getBacklog();
+        while (getBacklog() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(Math.min(pollIntervalInSec, drainTimeoutInSec)));
+            poll();
+        }
+        double elapsedInSec = (lastPollTs - startTs) / 1000.0;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("sent", sent);
+        summary.put("processed", processed);
+        summary.put("backlogAtEnd", backlogAtEnd);
+        summary.put("lost", getBacklog());
+        summary.put("processedRate", elapsedInSec > 0 ? Math.round(processed / elapsedInSec) : 0);
+        if (getBacklog() > 0) {
+            log.warn("Rule engine processed {} of {} sent messages, {} messages were not processed within {} seconds after the test",
+                    processed, sent, getBacklog(), drainTimeoutInSec);
+        } else {
+            log.info("Rule engine processed all {} sent messages, backlog at the end of the test: {}", sent, backlogAtEnd);
+        }
+        runStats = null;
+        return summary;
+    }
+
+    private long readProcessed(long startTs, long endTs) {
+        List<String> keys = new ArrayList<>();
+        JsonNode keysNode = restClientService.getRestClient().getRestTemplate()
+                .getForObject(restUrl + "/api/plugins/telemetry/TENANT/" + tenantId + "/keys/timeseries", JsonNode.class);
+        if (keysNode != null) {
+            keysNode.forEach(key -> {
+                if (key.asText().startsWith(COUNTER_KEY_PREFIX)) {
+                    keys.add(key.asText());
+                }
+            });
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        // a single SUM interval that covers the whole test, one value per rule engine service
+        long interval = Math.max(1000, endTs - startTs);
+        JsonNode values = restClientService.getRestClient().getRestTemplate()
+                .getForObject(restUrl + "/api/plugins/telemetry/TENANT/" + tenantId + "/values/timeseries?keys={keys}"
+                                + "&startTs={startTs}&endTs={endTs}&interval={interval}&agg=SUM&limit=100",
+                        JsonNode.class, String.join(",", keys), startTs, startTs + interval, interval);
+        long total = 0;
+        if (values != null) {
+            for (JsonNode keyValues : values) {
+                for (JsonNode value : keyValues) {
+                    total += Math.round(Double.parseDouble(value.get("value").asText()));
+                }
+            }
+        }
+        return total;
+    }
+
+}
@@ -17,33 +17,59 @@ package org.thingsboard.tools.service.shared;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.PageLink;
 import org.thingsboard.tools.service.customer.CustomerManager;
 import org.thingsboard.tools.service.device.DeviceProfileManager;
 import org.thingsboard.tools.service.msg.MessageGenerator;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.PayloadFormat;
+import org.thingsboard.tools.service.rate.RateFunction;
+import org.thingsboard.tools.service.rate.RateListener;
+import org.thingsboard.tools.service.rate.RateScheduler;
+import org.thingsboard.tools.service.rate.ThroughputSearch;
+import org.thingsboard.tools.service.rate.WorkloadProfile;
+import org.thingsboard.tools.service.rpc.RpcLoadDriver;
+import org.thingsboard.tools.service.rule.RuleChainCounterVerifier;
+import org.thingsboard.tools.service.stats.LatencyStats;
+import org.thingsboard.tools.service.stats.LoadGeneratorMetrics;
+import org.thingsboard.tools.service.stats.RegressionGate;
+import org.thingsboard.tools.service.stats.RunReportWriter;
+import org.thingsboard.tools.service.ws.TelemetryLatencyMonitor;
+import org.thingsboard.tools.service.ws.WsSubscriberLoad;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -92,8 +118,44 @@ public abstract class AbstractAPITest {
     protected int alarmsPerSecond;
     @Value("${test.seed:0}")
     protected int seed;
+    @Value("${test.profile:}")
+    protected String workloadProfileLocation;
+    @Value("${test.search.enabled:false}")
+    protected boolean searchEnabled;
+    @Value("${test.search.startRate:1000}")
+    protected long searchStartRate;
+    @Value("${test.search.stepFactor:1.5}")
+    protected double searchStepFactor;
+    @Value("${test.search.maxRate:100000}")
+    protected long searchMaxRate;
+    @Value("${test.search.precision:5}")
+    protected double searchPrecision;
+    @Value("${test.search.trialDuration:60}")
+    protected int searchTrialDuration;
+    @Value("${test.search.cooldown:15}")
+    protected int searchCooldown;
+    @Value("${test.search.slo.maxFailedPercent:1}")
+    protected double sloMaxFailedPercent;
+    @Value("${test.search.slo.minAchievedPercent:95}")
+    protected double sloMinAchievedPercent;
+    @Value("${test.search.slo.ackLatencyP99Ms:1000}")
+    protected long sloAckLatencyP99Ms;
+    @Value("${test.search.slo.e2eLatencyP99Ms:3000}")
+    protected long sloE2eLatencyP99Ms;
+    @Value("${test.search.slo.maxBacklogSec:5}")
+    protected double sloMaxBacklogSec;
     @Value("${test.payloadType:SMART_METER}")
     protected String payloadType;
+    @Value("${test.payloadFormat:JSON}")
+    protected PayloadFormat payloadFormat;
+    @Value("${device.provisioning.mode:REST}")
+    protected ProvisioningMode provisioningMode;
+    @Value("${device.manifest.enabled:false}")
+    protected boolean manifestEnabled;
+    @Value("${device.manifest.dir:manifest}")
+    protected String manifestDir;
+    @Value("${device.manifest.verifyPageSize:10000}")
+    protected int manifestVerifyPageSize;
 
     @Autowired
     @Qualifier("randomTelemetryGenerator")
@@ -106,6 +168,24 @@ public abstract class AbstractAPITest {
     protected RestClientService restClientService;
     @Autowired
     protected CustomerManager customerManager;
+    @Autowired
+    protected RateScheduler rateScheduler;
+    @Autowired(required = false)
+    protected TelemetryLatencyMonitor latencyMonitor;
+    @Autowired
+    protected DeviceBulkImportService bulkImportService;
+    @Autowired
+    protected LoadGeneratorMetrics metrics;
+    @Autowired(required = false)
+    protected RunReportWriter reportWriter;
+    @Autowired(required = false)
+    protected RegressionGate regressionGate;
+    @Autowired(required = false)
+    protected RuleChainCounterVerifier counterVerifier;
+    @Autowired(required = false)
+    protected WsSubscriberLoad wsSubscriberLoad;
+    @Autowired(required = false)
+    protected RpcLoadDriver rpcLoadDriver;
 
     @Autowired
     DeviceProfileManager deviceProfileManager;
@@ -113,9 +193,10 @@ public abstract class AbstractAPITest {
     protected List<Device> devices = Collections.synchronizedList(new ArrayList<>(1024 * 8));
     public Set<String> clientTryingToConnect = ConcurrentHashMap.newKeySet(1024 * 8);
     public Map<String, String> clientAccessConnect = new ConcurrentHashMap<>(1024 * 8);
+    protected final List<LatencyStats> latencyStats = new CopyOnWriteArrayList<>();
 
     protected Random random;
-    CountDownLatch testDurationLatch;
+    protected WorkloadProfile workloadProfile;
 
     protected int deviceStartIdx;
     protected int deviceEndIdx;
@@ -123,7 +204,23 @@ public abstract class AbstractAPITest {
 
     @PostConstruct
     protected void init() {
+        if (payloadFormat == PayloadFormat.PROTOBUF && !isProtobufSupported()) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " does not support the PROTOBUF payload format");
+        }
+        if (rpcLoadDriver != null && (!isRpcSupported() || payloadFormat == PayloadFormat.PROTOBUF)) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " does not support the RPC load with the "
+                    + payloadFormat + " payload format");
+        }
         random = new Random(seed);
+        if (StringUtils.isNotBlank(workloadProfileLocation)) {
+            try {
+                workloadProfile = WorkloadProfile.load(workloadProfileLocation);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Failed to load workload profile " + workloadProfileLocation, e);
+            }
+            log.info("Workload profile [{}], {} seconds:", workloadProfile.getName(), workloadProfile.getDurationInSec());
+            workloadProfile.describe().forEach(stage -> log.info("  {}", stage));
+        }
         if (this.useInstanceIdx) {
             boolean parsed = false;
             if (this.useInstanceIdxRegex) {
@@ -160,6 +257,27 @@ public abstract class AbstractAPITest {
         }
     }
 
+    /**
+     * Whether the API can send the protobuf payloads described by the *_PROTOBUF device profiles.
+     */
+    protected boolean isProtobufSupported() {
+        return false;
+    }
+
+    /**
+     * @return true if the simulated devices answer the server-side RPCs of the {@link RpcLoadDriver}
+     */
+    protected boolean isRpcSupported() {
+        return false;
+    }
+
+    /**
+     * Device profile of the created devices and gateways, protobuf payloads need the profile with the proto schemas.
+     */
+    protected String getDeviceProfileName() {
+        return payloadFormat == PayloadFormat.PROTOBUF ? payloadType + "_PROTOBUF" : payloadType;
+    }
+
     protected void createDevices(boolean setCredentials) throws Exception {
         List<Device> entities = createEntities(deviceStartIdx, deviceEndIdx, false, setCredentials);
         devices = Collections.synchronizedList(entities);
@@ -171,24 +289,421 @@ public abstract class AbstractAPITest {
         log.info("Shuffling {} devices with random seed {}...", deviceCount, seed);
         Collections.shuffle(devices, new Random(seed));
         log.info("Starting performance test for {} devices...", deviceCount);
-        AtomicInteger totalSuccessCount = new AtomicInteger();
-        AtomicInteger totalFailedCount = new AtomicInteger();
-        testDurationLatch = new CountDownLatch(testDurationInSec);
-        AtomicInteger iterationNumber = new AtomicInteger();
-        ScheduledFuture<?> scheduledFuture = restClientService.getScheduler().scheduleAtFixedRate(() -> {
+        TestRunStats runStats = new TestRunStats();
+        metrics.bindRunStats(runStats);
+        if (latencyMonitor != null) {
+            startLatencyMonitor();
+        }
+        if (wsSubscriberLoad != null) {
+            startWsSubscriberLoad();
+        }
+        if (rpcLoadDriver != null) {
+            rpcLoadDriver.start(getDeviceIds(rpcLoadDriver.getDeviceCount()));
+            for (LatencyStats stats : List.of(rpcLoadDriver.getTwoWayStats(), rpcLoadDriver.getOneWayStats())) {
+                if (!latencyStats.contains(stats)) {
+                    latencyStats.add(stats);
+                }
+            }
+        }
+        if (reportWriter != null) {
             try {
-                runApiTestIteration(iterationNumber.incrementAndGet(), totalSuccessCount, totalFailedCount, testDurationLatch);
-            } catch (Exception e) {
-                log.error("Failed to run performance iteration {}", iterationNumber.get(), e);
+                reportWriter.start(latencyStats);
+            } catch (IOException e) {
+                log.warn("Failed to open the run report, the test runs without it", e);
+            }
+        }
+        if (counterVerifier != null) {
+            counterVerifier.start(runStats);
+        }
+        long startNanos = System.nanoTime();
+        int durationInSec;
+        if (searchEnabled) {
+            durationInSec = runThroughputSearch(runStats);
+        } else {
+            RateFunction rate = workloadProfile != null ? workloadProfile : RateFunction.constant(testMessagesPerSecond);
+            durationInSec = getDurationInSec();
+            runSchedule(rate, durationInSec, new TestRateListener(runStats, durationInSec, null));
+        }
+        double elapsedInSec = (double) (System.nanoTime() - startNanos) / RateScheduler.NANOS_PER_SECOND;
+        if (rpcLoadDriver != null) {
+            // the calls in flight are awaited before the totals are logged
+            Map<String, Object> rpc = rpcLoadDriver.stop();
+            if (reportWriter != null) {
+                reportWriter.addSection("rpc", rpc);
+            }
+        }
+        log.info("Completed performance iteration. Success: {}, Failed: {}, Skipped: {}",
+                runStats.getSuccess().get(), runStats.getFailed().get(), runStats.getSkipped().get());
+        log.info("Offered rate: {} msg/s, achieved rate: {} msg/s, {} datapoints/s",
+                runStats.getOffered().get() / Math.max(1, durationInSec), Math.round(runStats.getSuccess().get() / elapsedInSec),
+                Math.round(runStats.getDatapoints().get() / elapsedInSec));
+        for (LatencyStats stats : latencyStats) {
+            log.info("Total {}", stats.formatTotal());
+        }
+        if (counterVerifier != null) {
+            Map<String, Object> ruleEngine = counterVerifier.stop();
+            if (reportWriter != null) {
+                reportWriter.addSection("ruleEngine", ruleEngine);
+            }
+        }
+        if (wsSubscriberLoad != null) {
+            Map<String, Object> wsSubscribers = wsSubscriberLoad.stop();
+            if (reportWriter != null) {
+                reportWriter.addSection("wsSubscribers", wsSubscribers);
+            }
+        }
+        if (reportWriter != null) {
+            JsonNode summary = reportWriter.finish(runStats, elapsedInSec, getRunParameters(deviceCount));
+            if (regressionGate != null && summary != null) {
+                regressionGate.evaluate(summary);
             }
-        }, 0, 1, TimeUnit.SECONDS);
+        }
+        if (latencyMonitor != null) {
+            latencyMonitor.stop();
+        }
+    }
+
+    /**
+     * Runs the rate schedule and waits for its iterations to complete. The intervals of the last second
+     * are rolled over once the schedule is over.
+     */
+    private void runSchedule(RateFunction rate, int durationInSec, TestRateListener listener) throws InterruptedException {
+        Future<?> scheduleFuture = rateScheduler.start(rate, durationInSec, listener);
         log.info("Awaiting all iteration completion...");
-        testDurationLatch.await((long) (testDurationInSec * 1.2), TimeUnit.SECONDS);
-        scheduledFuture.cancel(true);
-        log.info("Completed performance iteration. Success: {}, Failed: {}", totalSuccessCount.get(), totalFailedCount.get());
+        listener.awaitCompletion((long) (durationInSec * 1.2), TimeUnit.SECONDS);
+        scheduleFuture.cancel(true);
+        for (LatencyStats stats : latencyStats) {
+            stats.nextInterval();
+        }
+        listener.onRunCompleted();
+    }
+
+    /**
+     * Runs trials at constant rates chosen by a {@link ThroughputSearch} until the maximum rate that meets the SLO is found.
+     *
+     * @return total duration of the trials, in seconds
+     */
+    private int runThroughputSearch(TestRunStats runStats) throws InterruptedException {
+        ThroughputSearch search = new ThroughputSearch(searchStartRate, searchStepFactor, searchMaxRate, searchPrecision);
+        List<Map<String, Object>> trials = new ArrayList<>();
+        int durationInSec = 0;
+        long rate;
+        while ((rate = search.getNextRate()) > 0) {
+            int trialIdx = trials.size();
+            log.info("Throughput search trial {}: {} msg/s for {} seconds ({})", trialIdx + 1, rate, searchTrialDuration,
+                    search.isBisecting() ? "bisecting" : "raising");
+            StageStats trial = new StageStats(trialIdx, "trial-" + (trialIdx + 1), "TRIAL", searchTrialDuration, rate, runStats);
+            TestRateListener listener = new TestRateListener(runStats, searchTrialDuration, trial);
+            long startBacklog = pollBacklog();
+            runSchedule(RateFunction.constant(rate), searchTrialDuration, listener);
+            durationInSec += searchTrialDuration;
+            List<String> breaches = checkSlo(trial, rate);
+            if (counterVerifier != null) {
+                // the backlog the rule engine built up during the trial, in seconds of the trial rate
+                double backlogSec = (double) (pollBacklog() - startBacklog) / rate;
+                if (backlogSec > sloMaxBacklogSec) {
+                    breaches.add(String.format("rule engine backlog grew by %.1f s of load > %.1f s", backlogSec, sloMaxBacklogSec));
+                }
+            }
+            boolean passed = breaches.isEmpty();
+            if (passed) {
+                log.info("Throughput search trial {}: {} msg/s meets the SLO", trialIdx + 1, rate);
+            } else {
+                log.info("Throughput search trial {}: {} msg/s breaches the SLO: {}", trialIdx + 1, rate, String.join("; ", breaches));
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("rate", rate);
+            result.put("achievedRate", trial.getAchievedRate());
+            result.put("failedPercent", trial.getFailedPercent());
+            result.put("passed", passed);
+            result.put("breaches", breaches);
+            trials.add(result);
+            search.onTrial(rate, passed);
+            if (search.getNextRate() > 0 && searchCooldown > 0) {
+                // lets the server drain the backlog of the previous trial
+                Thread.sleep(TimeUnit.SECONDS.toMillis(searchCooldown));
+            }
+        }
+        log.info("Maximum sustainable rate: {} msg/s after {} trials", search.getSustainableRate(), trials.size());
+        if (reportWriter != null) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("sustainableRate", search.getSustainableRate());
+            result.put("trials", trials);
+            reportWriter.addSection("throughputSearch", result);
+        }
+        return durationInSec;
+    }
+
+    private long pollBacklog() {
+        if (counterVerifier == null) {
+            return 0;
+        }
+        try {
+            counterVerifier.poll();
+        } catch (Exception e) {
+            log.warn("Failed to read the rule chain message counters", e);
+        }
+        return counterVerifier.getBacklog();
+    }
+
+    /**
+     * @return descriptions of the SLO breaches of the trial, empty if the trial meets the SLO
+     */
+    private List<String> checkSlo(StageStats trial, long rate) {
+        List<String> breaches = new ArrayList<>();
+        double failedPercent = trial.getFailedPercent();
+        if (failedPercent > sloMaxFailedPercent) {
+            breaches.add(String.format("failed %.2f%% > %.2f%%", failedPercent, sloMaxFailedPercent));
+        }
+        long achievedRate = trial.getAchievedRate();
+        if (achievedRate < rate * sloMinAchievedPercent / 100) {
+            breaches.add(String.format("achieved %d msg/s < %.0f%% of %d msg/s", achievedRate, sloMinAchievedPercent, rate));
+        }
+        // transport acknowledgements are judged by their coordinated omission corrected latency. Skipped messages
+        // never complete, they count as infinitely late against both latency SLOs
+        long skipped = trial.getSkipped();
+        trial.getCorrectedLatency().forEach((stats, histogram) -> {
+            if (histogram.getTotalCount() > 0 && !isDeliveryStats(stats)) {
+                long missing = isRpcStats(stats) ? 0 : skipped;
+                checkLatencySlo(breaches, stats.getName() + " corrected", stats, histogram, missing, sloAckLatencyP99Ms);
+            }
+        });
+        if (latencyMonitor != null) {
+            Histogram e2e = trial.getCorrectedLatency().get(latencyMonitor.getStats());
+            if (e2e != null && e2e.getTotalCount() > 0) {
+                checkLatencySlo(breaches, "end-to-end", latencyMonitor.getStats(), e2e, skipped, sloE2eLatencyP99Ms);
+            }
+        }
+        return breaches;
+    }
+
+    /**
+     * Latency of the telemetry delivered over WebSocket, it has no transport acknowledgement SLO.
+     */
+    private boolean isDeliveryStats(LatencyStats stats) {
+        return (latencyMonitor != null && stats == latencyMonitor.getStats())
+                || (wsSubscriberLoad != null && stats == wsSubscriberLoad.getStats());
+    }
+
+    private boolean isRpcStats(LatencyStats stats) {
+        return rpcLoadDriver != null && (stats == rpcLoadDriver.getTwoWayStats() || stats == rpcLoadDriver.getOneWayStats());
+    }
+
+    private static void checkLatencySlo(List<String> breaches, String name, LatencyStats stats, Histogram histogram,
+                                        long skipped, long maxP99Ms) {
+        long value = LatencyStats.getValueAtPercentile(histogram, 99, skipped);
+        if (value == Long.MAX_VALUE) {
+            breaches.add(String.format("%s p99 unbounded, %d messages skipped", name, skipped));
+            return;
+        }
+        long p99 = LatencyStats.toMillis(value, stats.getUnit());
+        if (p99 > maxP99Ms) {
+            breaches.add(String.format("%s p99 %d ms > %d ms", name, p99, maxP99Ms));
+        }
+    }
+
+    /**
+     * Parameters of the run echoed into the run report summary.
+     */
+    protected Map<String, Object> getRunParameters(int deviceCount) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("test", getClass().getSimpleName());
+        run.put("deviceCount", deviceCount);
+        run.put("deviceStartIdx", deviceStartIdx);
+        run.put("deviceEndIdx", deviceEndIdx);
+        run.put("messagesPerSecond", testMessagesPerSecond);
+        run.put("durationSec", getDurationInSec());
+        if (searchEnabled) {
+            run.put("throughputSearch", true);
+        } else if (workloadProfile != null) {
+            run.put("workloadProfile", workloadProfile.getName());
+        }
+        run.put("telemetry", telemetryTest);
+        run.put("payloadType", payloadType);
+        run.put("payloadFormat", payloadFormat);
+        Map<String, Object> seedInfo = new LinkedHashMap<>();
+        seedInfo.put("value", seed);
+        seedInfo.put("appliesTo", "device order and device selection");
+        seedInfo.put("payloadValues", "ThreadLocalRandom of each publishing thread, not seeded");
+        run.put("seed", seedInfo);
+        return run;
+    }
+
+    protected int getDurationInSec() {
+        return workloadProfile != null ? workloadProfile.getDurationInSec() : testDurationInSec;
+    }
+
+    private void startLatencyMonitor() {
+        try {
+            latencyMonitor.start(getDeviceIds(latencyMonitor.getDeviceCount()));
+            if (!latencyStats.contains(latencyMonitor.getStats())) {
+                latencyStats.add(latencyMonitor.getStats());
+            }
+        } catch (Exception e) {
+            log.error("Failed to start end-to-end latency monitor", e);
+        }
+    }
+
+    private void startWsSubscriberLoad() {
+        try {
+            wsSubscriberLoad.start(getDeviceIds(wsSubscriberLoad.getDeviceCount()));
+            if (!latencyStats.contains(wsSubscriberLoad.getStats())) {
+                latencyStats.add(wsSubscriberLoad.getStats());
+            }
+        } catch (Exception e) {
+            log.error("Failed to start WebSocket subscriber load", e);
+        }
+    }
+
+    /**
+     * @return ids of the first devices of the test, looked up by their tokens if the devices were not created by this run
+     */
+    private List<DeviceId> getDeviceIds(int maxCount) {
+        int count = Math.min(maxCount, deviceEndIdx - deviceStartIdx);
+        List<DeviceId> deviceIds = new ArrayList<>(count);
+        if (!devices.isEmpty()) {
+            devices.stream().limit(count).map(Device::getId).forEach(deviceIds::add);
+        } else {
+            for (int i = deviceStartIdx; i < deviceStartIdx + count; i++) {
+                restClientService.getRestClient().findDevice(getToken(false, i)).ifPresent(device -> deviceIds.add(device.getId()));
+            }
+        }
+        return deviceIds;
+    }
+
+    protected void onIterationStart(TestIteration iteration) {
+    }
+
+    protected abstract void sendTestMessage(TestIteration iteration, long msgIdx, long intendedNanos);
+
+    /**
+     * Reserves an alarm of the iteration while the alarm storm is on. The reservation is atomic, so messages generated
+     * later on the publish executors never exceed the alarms per second.
+     */
+    protected boolean reserveAlarm(TestIteration iteration) {
+        int number = iteration.getNumber();
+        return number >= alarmsStartTs && number < alarmsEndTs && iteration.tryReserveAlarm(alarmsPerSecond);
+    }
+
+    /**
+     * Counts the alarm of a generated message or returns the reservation if the message does not trigger one.
+     */
+    protected void onMessageGenerated(TestIteration iteration, boolean alarmReserved, Msg message) {
+        if (message.isTriggersAlarm()) {
+            iteration.onAlarm();
+        } else if (alarmReserved) {
+            iteration.cancelAlarmReservation();
+        }
+    }
+
+    private void onIterationCompleted(TestIteration iteration) {
+        log.info("[{}] Completed performance iteration. Success: {}, Failed: {}, Skipped: {}, Alarms: {}",
+                iteration.getNumber(), iteration.getSuccess(), iteration.getFailed(), iteration.getSkipped(), iteration.getAlarms());
     }
 
-    protected abstract void runApiTestIteration(int iteration, AtomicInteger totalSuccessPublishedCount, AtomicInteger totalFailedPublishedCount, CountDownLatch testDurationLatch);
+    private class TestRateListener implements RateListener {
+
+        private final TestRunStats runStats;
+        // completed iterations of this schedule, iterations of a previous schedule completing late are not counted
+        private final CountDownLatch completed;
+        private final StageStats trial;
+        private TestIteration current;
+        private StageStats stage;
+        private long lastSuccessCount;
+        private long lastDatapointsCount;
+
+        /**
+         * @param trial stage that covers the whole schedule, null to follow the stages of the workload profile, if any
+         */
+        TestRateListener(TestRunStats runStats, int durationInSec, StageStats trial) {
+            this.runStats = runStats;
+            this.completed = new CountDownLatch(durationInSec);
+            this.trial = trial;
+            this.stage = trial;
+        }
+
+        void awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+            completed.await(timeout, unit);
+        }
+
+        @Override
+        public void onIterationStart(int iteration) {
+            long successCount = runStats.getSuccess().get();
+            long datapointsCount = runStats.getDatapoints().get();
+            if (current != null) {
+                log.info("[{}] Offered rate: {} msg/s, achieved rate: {} msg/s, {} datapoints/s", current.getNumber(), current.getOffered(),
+                        successCount - lastSuccessCount, datapointsCount - lastDatapointsCount);
+                for (LatencyStats stats : latencyStats) {
+                    log.info("[{}] {}", current.getNumber(), stats.format(stats.nextInterval()));
+                }
+                if (stage != null) {
+                    stage.addIntervals(latencyStats);
+                }
+                if (reportWriter != null) {
+                    reportWriter.writeSecond(current.getNumber(), getStageName(current.getNumber()), runStats);
+                }
+            }
+            if (trial == null && workloadProfile != null) {
+                int stageIdx = workloadProfile.getStageIndex((iteration - 1) * RateScheduler.NANOS_PER_SECOND);
+                if (stage == null || stage.getIndex() != stageIdx) {
+                    finishStage();
+                    stage = new StageStats(workloadProfile, stageIdx, runStats);
+                }
+            }
+            lastSuccessCount = successCount;
+            lastDatapointsCount = datapointsCount;
+            current = new TestIteration(iteration, runStats, completedIteration -> {
+                onIterationCompleted(completedIteration);
+                completed.countDown();
+            });
+            AbstractAPITest.this.onIterationStart(current);
+        }
+
+        /**
+         * Closes the last stage, the intervals of the last second are rolled over only once the run is over.
+         */
+        void onRunCompleted() {
+            if (stage != null) {
+                stage.addIntervals(latencyStats);
+                finishStage();
+            }
+        }
+
+        /**
+         * Logs the totals of the current stage of the workload profile and adds them to the run report.
+         */
+        void finishStage() {
+            if (stage == null) {
+                return;
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            stage.format(summary).forEach(line -> log.info("{}", line));
+            if (reportWriter != null) {
+                reportWriter.addStage(summary);
+            }
+            stage = null;
+        }
+
+        private String getStageName(int second) {
+            if (trial != null) {
+                return trial.getName();
+            }
+            if (workloadProfile == null) {
+                return null;
+            }
+            return workloadProfile.getStages().get(workloadProfile.getStageIndex((second - 1) * RateScheduler.NANOS_PER_SECOND)).getName();
+        }
+
+        @Override
+        public void onMessage(int iteration, long msgIdx, long intendedNanos) {
+            sendTestMessage(current, msgIdx, intendedNanos);
+        }
+
+        @Override
+        public void onIterationEnd(int iteration) {
+            current.close();
+        }
+    }
 
     protected void removeEntities(List<DeviceId> entityIds, String typeDevice) throws InterruptedException {
         log.info("Removing [{}] [{}]...", typeDevice, entityIds.size());
@@ -222,13 +737,21 @@ public abstract class AbstractAPITest {
 
 
     protected List<Device> createEntities(int startIdx, int endIdx, boolean isGateway, boolean setCredentials) throws InterruptedException {
+        if (provisioningMode == ProvisioningMode.BULK_IMPORT) {
+            // imported devices are addressed by their tokens, the entities themselves are not loaded
+            bulkImportService.importDevices(startIdx, endIdx, isGateway, setCredentials, getDeviceProfileName(), idx -> getToken(isGateway, idx));
+            return Collections.synchronizedList(new ArrayList<>());
+        }
         List<Device> result;
         if (isGateway) {
             result = Collections.synchronizedList(new ArrayList<>(1024));
         } else {
             result = Collections.synchronizedList(new ArrayList<>(1024 * 1024));
         }
-        int entityCount = endIdx - startIdx;
+        ProvisioningManifest manifest = openManifest(startIdx, endIdx, isGateway);
+        Map<Integer, Device> provisioned = manifest != null ? loadFromManifest(manifest, isGateway) : Collections.emptyMap();
+        result.addAll(provisioned.values());
+        int entityCount = endIdx - startIdx - provisioned.size();
 
 
         List<CustomerId> customerIds = customerManager.getCustomerIds();
@@ -236,12 +759,24 @@ public abstract class AbstractAPITest {
         log.info("Creating {} {}...", entityCount, (isGateway ? "gateways" : "devices"));
         CountDownLatch latch = new CountDownLatch(entityCount);
         AtomicInteger count = new AtomicInteger();
+        // started before the submission, a bounded executor blocks the loop below
+        ScheduledFuture<?> logScheduleFuture = restClientService.getLogScheduler().scheduleAtFixedRate(() -> {
+            try {
+                log.info("{} {} have been created so far...", count.get(), isGateway ? "gateways" : "devices");
+            } catch (Exception ignored) {
+            }
+        }, 0, DefaultRestClientService.LOG_PAUSE, TimeUnit.SECONDS);
+
+        long startTs = System.currentTimeMillis();
         for (int i = startIdx; i < endIdx; i++) {
+            if (provisioned.containsKey(i)) {
+                continue;
+            }
             final int tokenNumber = i;
             restClientService.getHttpExecutor().submit(() -> {
                 Device entity = new Device();
                 try {
-                    entity.setDeviceProfileId(deviceProfileManager.getByName(payloadType).getId());
+                    entity.setDeviceProfileId(deviceProfileManager.getByName(getDeviceProfileName()).getId());
                     String token = getToken(isGateway, tokenNumber);
                     if (isGateway) {
                         entity.setName(token);
@@ -263,6 +798,9 @@ public abstract class AbstractAPITest {
                     }
 
                     result.add(entity);
+                    if (manifest != null) {
+                        manifest.put(tokenNumber, entity.getId().getId(), setCredentials ? token : null);
+                    }
 
                     count.getAndIncrement();
                 } catch (Exception e) {
@@ -276,26 +814,114 @@ public abstract class AbstractAPITest {
             });
         }
 
-        ScheduledFuture<?> logScheduleFuture = restClientService.getLogScheduler().scheduleAtFixedRate(() -> {
-            try {
-                log.info("{} {} have been created so far...", count.get(), isGateway ? "gateways" : "devices");
-            } catch (Exception ignored) {
+        try {
+            latch.await();
+        } finally {
+            logScheduleFuture.cancel(true);
+            if (manifest != null) {
+                closeManifest(manifest);
             }
-        }, 0, DefaultRestClientService.LOG_PAUSE, TimeUnit.SECONDS);
-
-        latch.await();
-        logScheduleFuture.cancel(true);
+        }
 
-        log.info("{} {} have been created successfully!", result.size(), isGateway ? "gateways" : "devices");
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTs);
+        log.info("{} {} have been created successfully in {} ms ({} per second)!", result.size(), isGateway ? "gateways" : "devices",
+                elapsed, count.get() * 1000L / elapsed);
         return result;
     }
 
+    private ProvisioningManifest openManifest(int startIdx, int endIdx, boolean isGateway) {
+        if (!manifestEnabled) {
+            return null;
+        }
+        Path file = Paths.get(manifestDir, String.format("%s-%d-%d.manifest", isGateway ? "gateways" : "devices", startIdx, endIdx));
+        try {
+            return ProvisioningManifest.open(file, startIdx, endIdx);
+        } catch (IOException e) {
+            log.warn("Failed to open provisioning manifest [{}], devices will be looked up one by one", file, e);
+            return null;
+        }
+    }
+
+    private void closeManifest(ProvisioningManifest manifest) {
+        try {
+            manifest.close();
+        } catch (IOException e) {
+            log.warn("Failed to close provisioning manifest", e);
+        }
+    }
+
+    /**
+     * Returns the devices of the manifest that still exist on the server. The tenant devices are paged in large
+     * pages instead of being looked up one by one; stale records are removed from the manifest.
+     */
+    private Map<Integer, Device> loadFromManifest(ProvisioningManifest manifest, boolean isGateway) {
+        String entityType = isGateway ? "gateways" : "devices";
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int i = manifest.getStartIdx(); i < manifest.getEndIdx(); i++) {
+            UUID deviceId = manifest.getDeviceId(i);
+            if (deviceId != null) {
+                expected.put(deviceId, i);
+            }
+        }
+        Map<Integer, Device> verified = new HashMap<>(expected.size());
+        if (expected.isEmpty()) {
+            return verified;
+        }
+        log.info("Verifying {} {} of the provisioning manifest...", expected.size(), entityType);
+        PageLink pageLink = new PageLink(manifestVerifyPageSize, 0, isGateway ? "GW" : "DW");
+        PageData<Device> page;
+        do {
+            page = restClientService.getRestClient().getTenantDevices(null, pageLink);
+            for (Device device : page.getData()) {
+                Integer idx = expected.get(device.getId().getId());
+                if (idx != null && device.getName().equals(getToken(isGateway, idx))) {
+                    verified.put(idx, device);
+                }
+            }
+            pageLink = pageLink.nextPageLink();
+        } while (page.hasNext() && verified.size() < expected.size());
+        expected.values().stream().filter(idx -> !verified.containsKey(idx)).forEach(manifest::remove);
+        log.info("{} of {} {} from the provisioning manifest exist on the server", verified.size(), expected.size(), entityType);
+        return verified;
+    }
+
+    /**
+     * Token of the device to publish the message to: the devices of this instance in order, or a random device
+     * that got no message in the iteration yet. Once every device got one, the random pick starts over.
+     */
+    protected String getDeviceName(Set<String> iterationDevices, long msgIdx) {
+        if (sequentialTest) {
+            return getToken(false, deviceStartIdx + (int) (msgIdx % deviceCount));
+        }
+        if (iterationDevices.size() >= deviceCount) {
+            iterationDevices.clear();
+        }
+        while (true) {
+            String client = getToken(false, deviceStartIdx + random.nextInt(deviceCount));
+            if (iterationDevices.add(client)) {
+                return client;
+            }
+        }
+    }
+
     protected String getToken(boolean isGateway, int token) {
         return (isGateway ? "GW" : "DW") + String.format("%8d", token).replace(" ", "0");
     }
 
-    protected Msg getNextMessage(String deviceName, boolean alarmRequired) {
-        return (telemetryTest ? tsMsgGenerator : attrMsgGenerator).getNextMessage(deviceName, alarmRequired);
+    /**
+     * Generates the message with the send time intended by the rate schedule as the ts of its payload, so the latency
+     * measured from the ts on the subscriber side includes the time the message waited for the scheduler.
+     */
+    protected Msg getNextMessage(String deviceName, boolean alarmRequired, long intendedNanos) {
+        return getNextMessage(deviceName, alarmRequired, null, intendedNanos);
+    }
+
+    protected Msg getNextMessage(String deviceName, boolean alarmRequired, ByteBufAllocator allocator, long intendedNanos) {
+        long startNanos = System.nanoTime();
+        long intendedTs = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(startNanos - intendedNanos);
+        Msg msg = (telemetryTest ? tsMsgGenerator : attrMsgGenerator).getNextMessage(deviceName, alarmRequired, allocator, intendedTs);
+        metrics.recordGenerator(System.nanoTime() - startNanos);
+        return msg;
     }
 
     protected String getHttpErrorException(Exception e) {
@@ -26,9 +26,7 @@ import org.springframework.beans.factory.annotation.Value;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Data
@@ -52,10 +50,8 @@ public abstract class BaseLwm2mAPITest extends AbstractAPITest {
     }
 
 
-    protected void runApiTestIteration(int iteration,
-                                       AtomicInteger totalSuccessPublishedCount,
-                                       AtomicInteger totalFailedPublishedCount,
-                                       CountDownLatch testDurationLatch) {
+    @Override
+    protected void sendTestMessage(TestIteration iteration, long msgIdx, long intendedNanos) {
     }
 
 
@@ -15,22 +15,33 @@
  */
 package org.thingsboard.tools.service.shared;
 
+import com.google.common.util.concurrent.Futures;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.handler.codec.mqtt.MqttQoS;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslProvider;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.thingsboard.mqtt.MqttClient;
 import org.thingsboard.mqtt.MqttClientConfig;
 import org.thingsboard.mqtt.MqttConnectResult;
 import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.tools.service.mqtt.ConnectRateLimiter;
 import org.thingsboard.tools.service.mqtt.DeviceClient;
+import org.thingsboard.tools.service.mqtt.InFlightPolicy;
+import org.thingsboard.tools.service.mqtt.InFlightWindow;
+import org.thingsboard.tools.service.mqtt.ReconnectPolicy;
+import org.thingsboard.tools.service.mqtt.ReconnectStorm;
 import org.thingsboard.tools.service.msg.Msg;
+import org.thingsboard.tools.service.msg.PayloadFormat;
+import org.thingsboard.tools.service.stats.LatencyStats;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -40,17 +51,28 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 public abstract class BaseMqttAPITest extends AbstractAPITest {
 
-    private static final int CONNECT_TIMEOUT = 5;
+    private static final String RPC_REQUEST_TOPIC = "v1/devices/me/rpc/request/+";
+    private static final String RPC_RESPONSE_TOPIC_PREFIX = "v1/devices/me/rpc/response/";
+
     private EventLoopGroup EVENT_LOOP_GROUP;
 
     @Value("${mqtt.host}")
@@ -63,15 +85,65 @@ public abstract class BaseMqttAPITest extends AbstractAPITest {
     String mqttSslKeyStore;
     @Value("${mqtt.ssl.key_store_password}")
     String mqttSslKeyStorePassword;
+    @Value("${mqtt.transport:NIO}")
+    private NettyTransport mqttTransport;
+    @Value("${mqtt.eventLoopThreads:0}")
+    private int mqttEventLoopThreads;
+    @Value("${mqtt.publishOnEventLoop:true}")
+    private boolean publishOnEventLoop;
+    @Value("${mqtt.connect.rate:1000}")
+    private int connectRate;
+    @Value("${mqtt.connect.maxConcurrent:1000}")
+    private int maxConcurrentConnects;
+    @Value("${mqtt.connect.backoffFailureRatio:0.1}")
+    private double connectBackoffFailureRatio;
+    @Value("${mqtt.connect.maxAttempts:3}")
+    private int connectMaxAttempts;
+    @Value("${mqtt.connect.timeout:5}")
+    private int connectTimeout;
+    @Value("${mqtt.reconnectStorm.enabled:false}")
+    private boolean reconnectStormEnabled;
+    @Value("${mqtt.reconnectStorm.second:60}")
+    private int reconnectStormSecond;
+    @Value("${mqtt.reconnectStorm.percent:10}")
+    private double reconnectStormPercent;
+    @Value("${mqtt.reconnectStorm.policy:JITTER}")
+    private ReconnectPolicy reconnectPolicy;
+    @Value("${mqtt.reconnectStorm.jitterMs:5000}")
+    private int reconnectJitterMs;
+    @Value("${mqtt.qos:0}")
+    private int mqttQos;
+    @Value("${mqtt.inFlight.max:100}")
+    private int maxInFlight;
+    @Value("${mqtt.inFlight.policy:SKIP}")
+    private InFlightPolicy inFlightPolicy;
 
     protected final List<MqttClient> mqttClients = Collections.synchronizedList(new ArrayList<>(1024 * 16));
 
     protected final List<DeviceClient> deviceClients = Collections.synchronizedList(new ArrayList<>(1024 * 16));
 
+    private final Map<MqttClient, InFlightWindow> inFlightWindows = new ConcurrentHashMap<>();
+    private final LatencyStats pubAckStats = new LatencyStats("PUBACK", "us");
+    private final LatencyStats connAckStats = new LatencyStats("CONNACK", "ms");
+    private MqttQoS testQos;
+    private volatile ReconnectStorm reconnectStorm;
+
     @PostConstruct
     protected void init() {
         super.init();
-        EVENT_LOOP_GROUP = new NioEventLoopGroup();
+        mqttTransport = mqttTransport.resolve();
+        EVENT_LOOP_GROUP = mqttTransport.newEventLoopGroup(mqttEventLoopThreads, "mqtt-client");
+        log.info("MQTT clients use {} transport with {} event loop threads", mqttTransport,
+                mqttEventLoopThreads > 0 ? mqttEventLoopThreads : "default number of");
+        metrics.bindEventLoopGroup(EVENT_LOOP_GROUP, "mqtt-client");
+        testQos = MqttQoS.valueOf(mqttQos);
+        if (testQos == MqttQoS.EXACTLY_ONCE) {
+            throw new IllegalArgumentException("QoS 2 is not supported, please use QoS 0 or 1");
+        }
+        if (testQos == MqttQoS.AT_LEAST_ONCE) {
+            latencyStats.add(pubAckStats);
+        }
+        latencyStats.add(connAckStats);
     }
 
     @PreDestroy
@@ -152,47 +224,126 @@ public abstract class BaseMqttAPITest extends AbstractAPITest {
         return client;
     }
 
-    protected void connectDevices(List<String> pack, AtomicInteger totalConnectedCount, boolean isGateway) throws InterruptedException {
+    /**
+     * Connects the clients at the configured rate without blocking on individual handshakes. Clients that fail
+     * to connect are put back at the end of the queue until they run out of attempts.
+     */
+    protected void connectDevices(List<String> names, boolean isGateway) throws InterruptedException {
         final String devicesType = isGateway ? "gateways" : "devices";
-        final String deviceType = isGateway ? "gateway" : "device";
-        log.info("Connecting {} {}...", pack.size(), devicesType);
-        CountDownLatch connectLatch = new CountDownLatch(pack.size());
-        for (String deviceName : pack) {
-            restClientService.getHttpExecutor().submit(() -> {
-                try {
-                    mqttClients.add(initClient(deviceName));
-                    totalConnectedCount.incrementAndGet();
-                } catch (Exception e) {
-                    log.error("Error while connect {}", deviceType, e);
-                } finally {
-                    connectLatch.countDown();
+        log.info("Connecting {} {} at up to {} connects/s...", names.size(), devicesType, connectRate > 0 ? connectRate : "unlimited");
+        long startTime = System.currentTimeMillis();
+        ConnectRateLimiter rateLimiter = new ConnectRateLimiter(connectRate, connectBackoffFailureRatio);
+        Semaphore handshakes = new Semaphore(maxConcurrentConnects);
+        Queue<ConnectAttempt> queue = new ConcurrentLinkedQueue<>();
+        names.forEach(name -> queue.add(new ConnectAttempt(name, 1)));
+        AtomicInteger connectedCount = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(names.size());
+        while (completed.getCount() > 0) {
+            ConnectAttempt attempt = queue.poll();
+            if (attempt == null) {
+                // everything is in flight, wait for the results or for the retries
+                completed.await(10, TimeUnit.MILLISECONDS);
+                continue;
+            }
+            rateLimiter.acquire();
+            handshakes.acquire();
+            connect(attempt.token(), (client, error) -> {
+                handshakes.release();
+                if (client != null) {
+                    rateLimiter.onSuccess();
+                    mqttClients.add(client);
+                    connectedCount.incrementAndGet();
+                    completed.countDown();
+                } else {
+                    rateLimiter.onFailure();
+                    if (attempt.number() < connectMaxAttempts) {
+                        log.debug("[{}] Connect attempt {} failed: {}", attempt.token(), attempt.number(), error);
+                        queue.add(new ConnectAttempt(attempt.token(), attempt.number() + 1));
+                    } else {
+                        log.error("[{}] Failed to connect to MQTT broker at {}:{} after {} attempts: {}",
+                                attempt.token(), mqttHost, mqttPort, attempt.number(), error);
+                        completed.countDown();
+                    }
                 }
             });
         }
-        connectLatch.await();
-        log.info("{} {} have been connected successfully!", totalConnectedCount.get(), devicesType);
+        connAckStats.nextInterval();
+        log.info("{} of {} {} have been connected successfully in {} ms!", connectedCount.get(), names.size(), devicesType,
+                System.currentTimeMillis() - startTime);
+        log.info("{}", connAckStats.format(connAckStats.getTotal()));
     }
 
-    private MqttClient initClient(String token) throws Exception {
+    /**
+     * Starts the connect of a new client. The callback gets either the connected client or the failure reason.
+     */
+    protected void connect(String token, BiConsumer<MqttClient, String> callback) {
         MqttClientConfig config = new MqttClientConfig(getSslContext());
         config.setUsername(token);
+        config.setChannelClass(mqttTransport.getChannelClass());
         MqttClient client = MqttClient.create(config, null, null);
-        client.setEventLoop(EVENT_LOOP_GROUP);
-        Future<MqttConnectResult> connectFuture = client.connect(mqttHost, mqttPort);
-        MqttConnectResult result;
+        // a single event loop pins the channel to a known thread, see getPublishExecutor
+        client.setEventLoop(EVENT_LOOP_GROUP.next());
+        long startNanos = System.nanoTime();
+        Future<MqttConnectResult> connectFuture;
         try {
-            result = connectFuture.get(CONNECT_TIMEOUT, TimeUnit.SECONDS);
-        } catch (TimeoutException ex) {
-            connectFuture.cancel(true);
+            connectFuture = client.connect(mqttHost, mqttPort);
+        } catch (Exception e) {
             client.disconnect();
-            throw new RuntimeException(String.format("Failed to connect to MQTT broker at %s:%d.", mqttHost, mqttPort));
+            callback.accept(null, e.getMessage());
+            return;
         }
-        if (!result.isSuccess()) {
-            connectFuture.cancel(true);
+        ScheduledFuture<?> timeout = EVENT_LOOP_GROUP.schedule(() -> connectFuture.cancel(true), connectTimeout, TimeUnit.SECONDS);
+        connectFuture.addListener(future -> {
+            timeout.cancel(false);
+            if (future.isSuccess() && connectFuture.getNow().isSuccess()) {
+                long connectNanos = System.nanoTime() - startNanos;
+                connAckStats.record(TimeUnit.NANOSECONDS.toMillis(connectNanos));
+                metrics.recordConnect(connectNanos);
+                if (rpcLoadDriver != null) {
+                    subscribeToRpc(client);
+                }
+                callback.accept(client, null);
+                return;
+            }
             client.disconnect();
-            throw new RuntimeException(String.format("Failed to connect to MQTT broker at %s:%d. Result code is: %s", mqttHost, mqttPort, result.getReturnCode()));
-        }
-        return client;
+            String error;
+            if (future.isSuccess()) {
+                error = "result code is " + connectFuture.getNow().getReturnCode();
+            } else if (future.isCancelled()) {
+                error = "no CONNACK within " + connectTimeout + " seconds";
+            } else {
+                error = String.valueOf(future.cause());
+            }
+            callback.accept(null, error);
+        });
+    }
+
+    private record ConnectAttempt(String token, int number) {
+    }
+
+    /**
+     * Answers every server-side RPC with the params of the request after the configured processing delay.
+     * One-way requests are answered too, the server ignores these responses.
+     */
+    private void subscribeToRpc(MqttClient client) {
+        int responseDelayMs = rpcLoadDriver.getResponseDelayMs();
+        client.on(RPC_REQUEST_TOPIC, (topic, payload) -> {
+            rpcLoadDriver.onRequestReceived();
+            String responseTopic = RPC_RESPONSE_TOPIC_PREFIX + topic.substring(topic.lastIndexOf('/') + 1);
+            byte[] request = new byte[payload.readableBytes()];
+            payload.getBytes(payload.readerIndex(), request);
+            Runnable respond = () -> client.publish(responseTopic, Unpooled.wrappedBuffer(request), MqttQoS.AT_MOST_ONCE);
+            if (responseDelayMs > 0) {
+                EVENT_LOOP_GROUP.schedule(respond, responseDelayMs, TimeUnit.MILLISECONDS);
+            } else {
+                respond.run();
+            }
+            return Futures.immediateVoidFuture();
+        }, MqttQoS.AT_MOST_ONCE).addListener(future -> {
+            if (!future.isSuccess()) {
+                log.warn("[{}] Failed to subscribe to RPC requests", client.getClientConfig().getUsername(), future.cause());
+            }
+        });
     }
 
     private SslContext getSslContext() {
@@ -219,7 +370,16 @@ public abstract class BaseMqttAPITest extends AbstractAPITest {
         return null;
     }
 
+    @Override
+    protected boolean isProtobufSupported() {
+        return true;
+    }
+
     protected void reportMqttClientsStats() {
+        if (payloadFormat == PayloadFormat.PROTOBUF) {
+            // the stats message is JSON, it does not match the telemetry schema of the protobuf device profiles
+            return;
+        }
         for (MqttClient mqttClient : mqttClients) {
             mqttClient.publish("v1/devices/me/telemetry", Unpooled.wrappedBuffer("{\"msgCount\":0}".getBytes(StandardCharsets.UTF_8)), MqttQoS.AT_MOST_ONCE).addListener(future -> {
                         if (future.isSuccess()) {
@@ -232,53 +392,179 @@ public abstract class BaseMqttAPITest extends AbstractAPITest {
         }
     }
 
-    protected void runApiTestIteration(final int iteration,
-                                       AtomicInteger totalSuccessPublishedCount,
-                                       AtomicInteger totalFailedPublishedCount,
-                                       CountDownLatch testDurationLatch,
-                                       final boolean isGateway) {
-        try {
-            log.info("[{}] Starting performance iteration for {} {}...", iteration, mqttClients.size(), isGateway ? "gateways" : "devices");
-            AtomicInteger successPublishedCount = new AtomicInteger();
-            AtomicInteger failedPublishedCount = new AtomicInteger();
-            CountDownLatch iterationLatch = new CountDownLatch(testMessagesPerSecond);
-            boolean alarmIteration = iteration >= alarmsStartTs && iteration < alarmsEndTs;
-            int alarmCount = 0;
-            int deviceCount = deviceClients.size();
-            int msgCount = iteration * testMessagesPerSecond % deviceCount;
-            for (int i = 0; i < testMessagesPerSecond; i++) {
-                boolean alarmRequired = alarmIteration && (alarmCount < alarmsPerSecond);
-                int index = msgCount % deviceCount;
-                DeviceClient client = deviceClients.get(index);
-                //log.info("device client index {} device {}", index, client.getDeviceName());
-                msgCount++;
-                Msg message = getNextMessage(client.getDeviceName(), alarmRequired);
-                if (message.isTriggersAlarm()) {
-                    alarmCount++;
+    @Override
+    protected void onIterationStart(TestIteration iteration) {
+        super.onIterationStart(iteration);
+        if (reconnectStormEnabled && iteration.getNumber() == reconnectStormSecond) {
+            restClientService.getWorkers().submit(this::startReconnectStorm);
+        }
+    }
+
+    /**
+     * Drops the configured share of the MQTT connections and reconnects them according to the reconnect policy,
+     * replacing the clients used by the test once they are connected again.
+     */
+    private void startReconnectStorm() {
+        List<DroppedClient> dropped = new ArrayList<>();
+        Map<MqttClient, DroppedClient> droppedByClient = new HashMap<>();
+        synchronized (mqttClients) {
+            List<Integer> indexes = new ArrayList<>(mqttClients.size());
+            for (int i = 0; i < mqttClients.size(); i++) {
+                indexes.add(i);
+            }
+            Collections.shuffle(indexes, random);
+            for (int index : indexes.subList(0, (int) Math.round(indexes.size() * reconnectStormPercent / 100))) {
+                DroppedClient droppedClient = new DroppedClient(mqttClients.get(index), index, new ArrayList<>());
+                dropped.add(droppedClient);
+                droppedByClient.put(droppedClient.client(), droppedClient);
+            }
+        }
+        if (dropped.isEmpty()) {
+            return;
+        }
+        synchronized (deviceClients) {
+            for (DeviceClient deviceClient : deviceClients) {
+                DroppedClient droppedClient = droppedByClient.get(deviceClient.getMqttClient());
+                if (droppedClient != null) {
+                    droppedClient.deviceClients().add(deviceClient);
                 }
-                restClientService.getWorkers().submit(() -> {
-                    client.getMqttClient().publish(getTestTopic(), Unpooled.wrappedBuffer(message.getData()), MqttQoS.AT_MOST_ONCE)
-                            .addListener(future -> {
-                                        if (future.isSuccess()) {
-                                            totalSuccessPublishedCount.incrementAndGet();
-                                            successPublishedCount.incrementAndGet();
-                                            logSuccessTestMessage(iteration, client);
-                                        } else {
-                                            totalFailedPublishedCount.incrementAndGet();
-                                            failedPublishedCount.incrementAndGet();
-                                            logFailureTestMessage(iteration, client, future);
-                                        }
-                                        iterationLatch.countDown();
-                                    }
-                            );
-                });
             }
-            iterationLatch.await();
-            log.info("[{}] Completed performance iteration. Success: {}, Failed: {}, Alarms: {}", iteration, successPublishedCount.get(), failedPublishedCount.get(), alarmCount);
-            testDurationLatch.countDown();
-        } catch (Throwable t) {
-            log.warn("[{}] Failed to process iteration", iteration, t);
         }
+        log.info("Reconnect storm: dropping {} of {} MQTT connections, reconnect policy {}", dropped.size(), mqttClients.size(), reconnectPolicy);
+        ReconnectStorm storm = new ReconnectStorm(dropped.size());
+        reconnectStorm = storm;
+        for (DroppedClient droppedClient : dropped) {
+            droppedClient.client().disconnect();
+            inFlightWindows.remove(droppedClient.client());
+        }
+        for (DroppedClient droppedClient : dropped) {
+            reconnect(storm, droppedClient, 1);
+        }
+    }
+
+    private void reconnect(ReconnectStorm storm, DroppedClient dropped, int attempt) {
+        long delayMs = reconnectPolicy == ReconnectPolicy.JITTER ? random.nextInt(reconnectJitterMs + 1) : 0;
+        String token = dropped.client().getClientConfig().getUsername();
+        EVENT_LOOP_GROUP.schedule(() -> connect(token, (client, error) -> {
+            if (client != null) {
+                mqttClients.set(dropped.index(), client);
+                dropped.deviceClients().forEach(deviceClient -> deviceClient.setMqttClient(client));
+                storm.onReconnectCompleted(true);
+            } else if (attempt < connectMaxAttempts) {
+                reconnect(storm, dropped, attempt + 1);
+            } else {
+                log.error("[{}] Failed to reconnect after {} attempts: {}", token, attempt, error);
+                storm.onReconnectCompleted(false);
+            }
+        }), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private record DroppedClient(MqttClient client, int index, List<DeviceClient> deviceClients) {
+    }
+
+    protected void onMessageFailed() {
+        ReconnectStorm storm = reconnectStorm;
+        if (storm != null && !storm.isCompleted()) {
+            storm.onMessageLost();
+        }
+    }
+
+    @Override
+    protected void sendTestMessage(TestIteration iteration, long msgIdx, long intendedNanos) {
+        DeviceClient client = deviceClients.get((int) (msgIdx % deviceClients.size()));
+        InFlightWindow window = null;
+        boolean delayed = false;
+        if (testQos != MqttQoS.AT_MOST_ONCE) {
+            window = getInFlightWindow(client.getMqttClient());
+            if (!window.tryAcquire()) {
+                if (inFlightPolicy != InFlightPolicy.DELAY || !window.tryReserveDelay()) {
+                    iteration.onSkipped();
+                    return;
+                }
+                delayed = true;
+            }
+        }
+        iteration.onSent();
+        boolean alarmRequired = reserveAlarm(iteration);
+        MqttClient mqttClient = client.getMqttClient();
+        InFlightWindow publishWindow = window;
+        boolean delayedPublish = delayed;
+        getPublishExecutor(mqttClient).execute(() -> {
+            // the payload is encoded only once we know it will be published, so skipped messages never hold a pooled buffer
+            Msg message = getNextMessage(client.getDeviceName(), alarmRequired, PooledByteBufAllocator.DEFAULT, intendedNanos);
+            onMessageGenerated(iteration, alarmRequired, message);
+            Runnable publish = () -> publish(mqttClient, message.getPayload(), publishWindow, future -> {
+                if (future.isSuccess()) {
+                    recordCorrectedPubAck(intendedNanos);
+                    iteration.onSuccess(message.getDatapoints());
+                    logSuccessTestMessage(iteration.getNumber(), client);
+                } else {
+                    iteration.onFailure();
+                    onMessageFailed();
+                    logFailureTestMessage(iteration.getNumber(), client, future);
+                }
+            });
+            if (delayedPublish) {
+                publishWindow.delay(publish);
+            } else {
+                publish.run();
+            }
+        });
+    }
+
+    /**
+     * Records the PUBACK latency of an acknowledged message against the send time intended by the rate schedule,
+     * so time spent waiting for the in-flight window, the publish executor or a stalled scheduler is included.
+     */
+    protected void recordCorrectedPubAck(long intendedNanos) {
+        if (testQos != MqttQoS.AT_MOST_ONCE) {
+            pubAckStats.recordCorrected(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos));
+        }
+    }
+
+    /**
+     * Executor that generates and publishes the messages of the connection. With the event loop affinity every
+     * connection is pinned to one event loop thread, so its messages are written without a hand-off between threads
+     * and the messages of a gateway are never written concurrently from several threads.
+     */
+    protected Executor getPublishExecutor(MqttClient mqttClient) {
+        return publishOnEventLoop ? mqttClient.getEventLoop().next() : restClientService.getWorkers();
+    }
+
+    /**
+     * @return in-flight window of the connection, or null if the test messages are not acknowledged
+     */
+    protected InFlightWindow getInFlightWindow(MqttClient mqttClient) {
+        if (testQos == MqttQoS.AT_MOST_ONCE) {
+            return null;
+        }
+        return inFlightWindows.computeIfAbsent(mqttClient, c -> new InFlightWindow(maxInFlight));
+    }
+
+    /**
+     * Publishes the payload to the test topic. The permit of the in-flight window, if any, is released
+     * once the publish completes.
+     */
+    protected void publish(MqttClient mqttClient, ByteBuf payload, InFlightWindow window, Consumer<Future<?>> onComplete) {
+        long publishNanos = System.nanoTime();
+        Future<Void> publishFuture;
+        try {
+            // the client releases the payload once it is written (QoS 0) or acknowledged (QoS 1)
+            publishFuture = mqttClient.publish(getTestTopic(), payload, testQos);
+        } catch (Exception e) {
+            ReferenceCountUtil.safeRelease(payload);
+            publishFuture = ImmediateEventExecutor.INSTANCE.newFailedFuture(e);
+        }
+        publishFuture.addListener(future -> {
+                    if (future.isSuccess() && window != null) {
+                        pubAckStats.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - publishNanos));
+                    }
+                    onComplete.accept(future);
+                    if (window != null) {
+                        window.release();
+                    }
+                }
+        );
     }
 
     protected abstract String getTestTopic();
@@ -0,0 +1,29 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+/**
+ * Threads that run the blocking REST and LwM2M calls.
+ */
+public enum BlockingExecutorMode {
+
+    // fixed size thread pools, the pool size limits the number of concurrent calls
+    POOL,
+    // a virtual thread per call, the number of concurrent calls is limited by a semaphore. Requires Java 21+ at
+    // runtime, falls back to POOL otherwise
+    VIRTUAL
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a new thread for every task, at most {@code maxConcurrent} tasks run at the same time. {@link #execute}
+ * blocks the caller while the limit is reached, so a provisioning loop submitting millions of tasks never holds more
+ * than {@code maxConcurrent} of them in memory. Must not be called from an event loop.
+ */
+public class BoundedThreadPerTaskExecutor extends AbstractExecutorService {
+
+    private final ThreadFactory threadFactory;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown;
+
+    public BoundedThreadPerTaskExecutor(ThreadFactory threadFactory, int maxConcurrent) {
+        this.threadFactory = threadFactory;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * @return factory of named virtual threads or null when the runtime does not support virtual threads
+     */
+    public static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            // Thread.ofVirtual().name(name + "-", 0).factory(), resolved reflectively as the project targets Java 17
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            builder = nameMethod.invoke(builder, name + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                command.run();
+            } finally {
+                running.remove(Thread.currentThread());
+                permits.release();
+            }
+        });
+        running.add(thread);
+        thread.start();
+    }
+
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        running.forEach(Thread::interrupt);
+        return new ArrayList<>();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && getActiveCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (permits.tryAcquire(maxConcurrent, timeout, unit)) {
+            permits.release(maxConcurrent);
+            return true;
+        }
+        return false;
+    }
+
+}
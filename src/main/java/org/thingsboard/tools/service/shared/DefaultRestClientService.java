@@ -16,7 +16,6 @@
 package org.thingsboard.tools.service.shared;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.californium.elements.util.ExecutorsUtil;
@@ -41,6 +40,7 @@ import java.security.cert.X509Certificate;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -51,8 +51,12 @@ public class DefaultRestClientService implements RestClientService {
 
     @Value("${rest.pool_size:4}")
     private int restPoolSize;
+    @Value("${rest.executor.mode:POOL}")
+    private BlockingExecutorMode executorMode;
+    @Value("${rest.executor.maxConcurrent:1000}")
+    private int executorMaxConcurrent;
     private ExecutorService httpExecutor;
-    private final ExecutorService lwm2mExecutor = Executors.newFixedThreadPool(50);
+    private ExecutorService lwm2mExecutor;
 
     private final ScheduledExecutorService logScheduler = Executors.newScheduledThreadPool(4);
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, ThingsBoardThreadFactory.forName("scheduler"));
@@ -68,6 +72,8 @@ public class DefaultRestClientService implements RestClientService {
     private String password;
     @Value("${rest.connect_server}")
     private boolean connectServer;
+    @Value("${mqtt.transport:NIO}")
+    private NettyTransport transport;
 
     static {
         disableSslVerification();
@@ -146,11 +152,27 @@ public class DefaultRestClientService implements RestClientService {
 
     @PostConstruct
     public void init() {
-        httpExecutor = ThingsBoardExecutors.newWorkStealingPool(restPoolSize, "REST");
+        ThreadFactory restThreads = null;
+        ThreadFactory lwm2mThreads = null;
+        if (executorMode == BlockingExecutorMode.VIRTUAL) {
+            restThreads = BoundedThreadPerTaskExecutor.virtualThreadFactory("REST");
+            lwm2mThreads = BoundedThreadPerTaskExecutor.virtualThreadFactory("lwm2m");
+            if (restThreads == null) {
+                log.warn("Virtual threads are not supported by Java {}, falling back to the thread pools", Runtime.version().feature());
+            }
+        }
+        if (restThreads != null) {
+            log.info("Running blocking calls on virtual threads, at most {} at the same time", executorMaxConcurrent);
+            httpExecutor = new BoundedThreadPerTaskExecutor(restThreads, executorMaxConcurrent);
+            lwm2mExecutor = new BoundedThreadPerTaskExecutor(lwm2mThreads, executorMaxConcurrent);
+        } else {
+            httpExecutor = ThingsBoardExecutors.newWorkStealingPool(restPoolSize, "REST");
+            lwm2mExecutor = Executors.newFixedThreadPool(50);
+        }
         if (connectServer) {
             restClient = new RestClient(restUrl);
             restClient.login(username, password);
-            eventLoopGroup = new NioEventLoopGroup();
+            eventLoopGroup = transport.resolve().newEventLoopGroup(0, "event-loop");
         }
     }
 
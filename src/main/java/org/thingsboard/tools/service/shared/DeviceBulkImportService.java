@@ -0,0 +1,211 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Provisions devices in chunks through the CSV bulk import API. Import updates existing devices, so a failed
+ * index range can simply be imported again.
+ */
+@Slf4j
+@Service
+public class DeviceBulkImportService {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${rest.url}")
+    private String restUrl;
+    @Value("${device.provisioning.chunkSize:1000}")
+    private int chunkSize;
+    @Value("${device.provisioning.parallelism:4}")
+    private int parallelism;
+    @Value("${device.provisioning.maxAttempts:3}")
+    private int maxAttempts;
+    // applies to devices only, gateways are few enough to be imported again
+    @Value("${device.provisioning.resumeIdx:-1}")
+    private int resumeIdx;
+
+    @Autowired
+    private RestClientService restClientService;
+
+    /**
+     * Imports the devices with indexes from startIdx (inclusive) to endIdx (exclusive). The name of every device
+     * is its token; the token is used as access token only if setCredentials is true.
+     *
+     * @return number of created or updated devices
+     */
+    public long importDevices(int startIdx, int endIdx, boolean isGateway, boolean setCredentials,
+                              String deviceProfile, IntFunction<String> tokenFunction) throws InterruptedException {
+        String entityType = isGateway ? "gateways" : "devices";
+        if (!isGateway && resumeIdx > startIdx) {
+            log.info("Resuming {} import from index {}", entityType, resumeIdx);
+            startIdx = Math.min(resumeIdx, endIdx);
+        }
+        int entityCount = endIdx - startIdx;
+        log.info("Importing {} {} in chunks of {} with parallelism {}...", entityCount, entityType, chunkSize, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, ThingsBoardThreadFactory.forName("bulk-import"));
+        AtomicLong imported = new AtomicLong();
+        List<IndexRange> failedRanges = Collections.synchronizedList(new ArrayList<>());
+        long startTime = System.currentTimeMillis();
+        CountDownLatch latch = new CountDownLatch((entityCount + chunkSize - 1) / chunkSize);
+        for (int chunkStart = startIdx; chunkStart < endIdx; chunkStart += chunkSize) {
+            int from = chunkStart;
+            int to = Math.min(chunkStart + chunkSize, endIdx);
+            executor.submit(() -> {
+                try {
+                    ChunkResult result = importChunk(from, to, isGateway, setCredentials, deviceProfile, tokenFunction);
+                    imported.addAndGet(result.imported());
+                    if (result.errors() > 0) {
+                        failedRanges.add(new IndexRange(from, to));
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to import {} [{}, {}) after {} attempts", entityType, from, to, maxAttempts, e);
+                    failedRanges.add(new IndexRange(from, to));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        ScheduledFuture<?> logScheduleFuture = restClientService.getLogScheduler().scheduleAtFixedRate(() -> {
+            long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+            log.info("{} of {} {} have been imported so far, {} per second", imported.get(), entityCount, entityType,
+                    imported.get() * 1000 / elapsed);
+        }, DefaultRestClientService.LOG_PAUSE, DefaultRestClientService.LOG_PAUSE, TimeUnit.SECONDS);
+
+        try {
+            latch.await();
+        } finally {
+            logScheduleFuture.cancel(true);
+            executor.shutdownNow();
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        log.info("{} {} have been imported in {} ms, {} per second", imported.get(), entityType, elapsed, imported.get() * 1000 / elapsed);
+        if (!failedRanges.isEmpty()) {
+            List<IndexRange> sorted = sortByStart(failedRanges);
+            log.error("Failed to import {} ranges {}. Import them again with the start/end indexes of these ranges or " +
+                    "with device.provisioning.resumeIdx set to the first failed index {}", entityType, sorted, sorted.get(0).from());
+        }
+        return imported.get();
+    }
+
+    /**
+     * Imports a chunk, retrying it while the response reports errors. The devices that were imported are
+     * updated again by a retry.
+     */
+    private ChunkResult importChunk(int from, int to, boolean isGateway, boolean setCredentials,
+                             String deviceProfile, IntFunction<String> tokenFunction) {
+        ObjectNode request = mapper.createObjectNode();
+        request.put("file", toCsv(from, to, isGateway, setCredentials, deviceProfile, tokenFunction));
+        ObjectNode mapping = request.putObject("mapping");
+        ArrayNode columns = mapping.putArray("columns");
+        columns.addObject().put("type", "NAME");
+        columns.addObject().put("type", "TYPE");
+        if (setCredentials) {
+            columns.addObject().put("type", "ACCESS_TOKEN");
+        }
+        if (isGateway) {
+            columns.addObject().put("type", "IS_GATEWAY");
+        }
+        mapping.put("delimiter", ",");
+        mapping.put("update", true);
+        mapping.put("header", false);
+
+        RuntimeException error = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                JsonNode result = restClientService.getRestClient().getRestTemplate()
+                        .postForEntity(restUrl + "/api/device/bulk_import", request, JsonNode.class).getBody();
+                if (result == null) {
+                    throw new IllegalStateException("Empty bulk import response");
+                }
+                long imported = result.path("created").asLong() + result.path("updated").asLong();
+                int errors = result.path("errors").asInt();
+                if (errors > 0) {
+                    if (attempt < maxAttempts) {
+                        log.debug("Import of [{}, {}) attempt {} reported {} errors: {}", from, to, attempt, errors, result.path("errorsList"));
+                        continue;
+                    }
+                    log.warn("Import of [{}, {}) reported {} errors: {}", from, to, errors, result.path("errorsList"));
+                }
+                return new ChunkResult(imported, errors);
+            } catch (RuntimeException e) {
+                log.debug("Import of [{}, {}) attempt {} failed", from, to, attempt, e);
+                error = e;
+            }
+        }
+        throw error;
+    }
+
+    static String toCsv(int from, int to, boolean isGateway, boolean setCredentials,
+                        String deviceProfile, IntFunction<String> tokenFunction) {
+        StringBuilder csv = new StringBuilder((to - from) * 48);
+        for (int i = from; i < to; i++) {
+            String token = tokenFunction.apply(i);
+            csv.append(token).append(',').append(deviceProfile);
+            if (setCredentials) {
+                csv.append(',').append(token);
+            }
+            if (isGateway) {
+                csv.append(",true");
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    static List<IndexRange> sortByStart(List<IndexRange> ranges) {
+        List<IndexRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(IndexRange::from));
+        return sorted;
+    }
+
+    private record ChunkResult(long imported, int errors) {
+    }
+
+    /**
+     * Indexes from (inclusive) to (exclusive).
+     */
+    record IndexRange(int from, int to) {
+
+        @Override
+        public String toString() {
+            return "[" + from + ", " + to + ")";
+        }
+    }
+
+}
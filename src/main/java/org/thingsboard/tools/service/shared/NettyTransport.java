@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+
+/**
+ * Event loop implementation used by the Netty based clients. Native transports fall back to NIO
+ * when they are not available on the current platform.
+ */
+@Slf4j
+public enum NettyTransport {
+
+    NIO,
+    EPOLL,
+    IO_URING;
+
+    public boolean isAvailable() {
+        return switch (this) {
+            case NIO -> true;
+            case EPOLL -> Epoll.isAvailable();
+            case IO_URING -> IOUring.isAvailable();
+        };
+    }
+
+    public NettyTransport resolve() {
+        if (isAvailable()) {
+            return this;
+        }
+        Throwable cause = this == EPOLL ? Epoll.unavailabilityCause() : IOUring.unavailabilityCause();
+        log.warn("{} transport is not available, falling back to NIO: {}", this, cause != null ? cause.getMessage() : "unknown");
+        return NIO;
+    }
+
+    /**
+     * @param threads number of event loop threads, 0 for the Netty default (2 * available processors)
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, String name) {
+        ThingsBoardThreadFactory threadFactory = ThingsBoardThreadFactory.forName(name);
+        return switch (this) {
+            case NIO -> new NioEventLoopGroup(threads, threadFactory);
+            case EPOLL -> new EpollEventLoopGroup(threads, threadFactory);
+            case IO_URING -> new IOUringEventLoopGroup(threads, threadFactory);
+        };
+    }
+
+    public Class<? extends SocketChannel> getChannelClass() {
+        return switch (this) {
+            case NIO -> NioSocketChannel.class;
+            case EPOLL -> EpollSocketChannel.class;
+            case IO_URING -> IOUringSocketChannel.class;
+        };
+    }
+
+}
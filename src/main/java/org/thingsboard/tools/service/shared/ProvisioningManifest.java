@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Memory-mapped file of device index to device id and access token, written while provisioning so that
+ * later runs can skip the per-device lookups. Every index owns a fixed-size record, so records of different
+ * indexes may be written concurrently.
+ */
+public class ProvisioningManifest implements Closeable {
+
+    private static final int MAGIC = 0x54425046; // TBPF
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int MAX_TOKEN_LENGTH = 46;
+    // msb, lsb, token length, token
+    private static final int RECORD_SIZE = 8 + 8 + 2 + MAX_TOKEN_LENGTH;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int startIdx;
+    private final int endIdx;
+
+    private ProvisioningManifest(FileChannel channel, MappedByteBuffer buffer, int startIdx, int endIdx) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.startIdx = startIdx;
+        this.endIdx = endIdx;
+    }
+
+    /**
+     * Opens the manifest of the given index range, creating an empty one if the file does not exist
+     * or was written by an incompatible version.
+     */
+    public static ProvisioningManifest open(Path file, int startIdx, int endIdx) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        long size = HEADER_SIZE + (long) (endIdx - startIdx) * RECORD_SIZE;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean valid = channel.size() == size;
+            if (channel.size() > size) {
+                channel.truncate(size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != startIdx || buffer.getInt(12) != endIdx) {
+                for (int i = 0; i < size; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, startIdx).putInt(12, endIdx);
+            }
+            return new ProvisioningManifest(channel, buffer, startIdx, endIdx);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void put(int idx, UUID deviceId, String token) {
+        int offset = offset(idx);
+        byte[] tokenBytes = token != null ? token.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (tokenBytes.length > MAX_TOKEN_LENGTH) {
+            tokenBytes = new byte[0];
+        }
+        buffer.putShort(offset + 16, (short) tokenBytes.length);
+        buffer.put(offset + 18, tokenBytes);
+        buffer.putLong(offset + 8, deviceId.getLeastSignificantBits());
+        // written last: a non-zero msb marks the record as present
+        buffer.putLong(offset, deviceId.getMostSignificantBits());
+    }
+
+    /**
+     * @return device id of the index, or null if the index was not provisioned yet
+     */
+    public UUID getDeviceId(int idx) {
+        int offset = offset(idx);
+        long msb = buffer.getLong(offset);
+        if (msb == 0) {
+            return null;
+        }
+        return new UUID(msb, buffer.getLong(offset + 8));
+    }
+
+    /**
+     * @return access token of the index, or null if it is unknown
+     */
+    public String getToken(int idx) {
+        int offset = offset(idx);
+        int length = buffer.getShort(offset + 16);
+        if (length == 0) {
+            return null;
+        }
+        byte[] token = new byte[length];
+        buffer.get(offset + 18, token);
+        return new String(token, StandardCharsets.UTF_8);
+    }
+
+    public void remove(int idx) {
+        buffer.putLong(offset(idx), 0);
+    }
+
+    public int getStartIdx() {
+        return startIdx;
+    }
+
+    public int getEndIdx() {
+        return endIdx;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int offset(int idx) {
+        if (idx < startIdx || idx >= endIdx) {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of the manifest range [" + startIdx + ", " + endIdx + ")");
+        }
+        return HEADER_SIZE + (idx - startIdx) * RECORD_SIZE;
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.thingsboard.tools.service.rate.RateScheduler;
+import org.thingsboard.tools.service.rate.WorkloadProfile;
+import org.thingsboard.tools.service.rate.WorkloadStage;
+import org.thingsboard.tools.service.stats.LatencyStats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totals of one stage of a run, e.g. of a workload profile stage or of a throughput search trial: the difference
+ * of the run totals between the stage start and end and the latency intervals rolled over during the stage.
+ */
+class StageStats {
+
+    @Getter
+    private final int index;
+    @Getter
+    private final String name;
+    private final String type;
+    private final int durationInSec;
+    private final double targetRate;
+    private final TestRunStats runStats;
+    private final long startNanos = System.nanoTime();
+    private final long startOffered;
+    private final long startSuccess;
+    private final long startFailed;
+    private final long startSkipped;
+    private final long startDatapoints;
+    @Getter
+    private final Map<LatencyStats, Histogram> latency = new LinkedHashMap<>();
+    @Getter
+    private final Map<LatencyStats, Histogram> correctedLatency = new LinkedHashMap<>();
+
+    private boolean closed;
+    private double elapsedInSec;
+    @Getter
+    private long offered;
+    @Getter
+    private long success;
+    @Getter
+    private long failed;
+    @Getter
+    private long skipped;
+    private long datapoints;
+
+    StageStats(WorkloadProfile profile, int index, TestRunStats runStats) {
+        this(index, profile.getStages().get(index).getName(), profile.getStages().get(index).getType().name(),
+                profile.getStages().get(index).getDuration(), profile.getAverageRate(index), runStats);
+    }
+
+    StageStats(int index, String name, String type, int durationInSec, double targetRate, TestRunStats runStats) {
+        this.index = index;
+        this.name = name;
+        this.type = type;
+        this.durationInSec = durationInSec;
+        this.targetRate = targetRate;
+        this.runStats = runStats;
+        this.startOffered = runStats.getOffered().get();
+        this.startSuccess = runStats.getSuccess().get();
+        this.startFailed = runStats.getFailed().get();
+        this.startSkipped = runStats.getSkipped().get();
+        this.startDatapoints = runStats.getDatapoints().get();
+    }
+
+    /**
+     * Adds the intervals rolled over last to the stage histograms.
+     */
+    void addIntervals(List<LatencyStats> latencyStats) {
+        for (LatencyStats stats : latencyStats) {
+            add(latency, stats, stats.getInterval());
+            add(correctedLatency, stats, stats.getCorrectedInterval());
+        }
+    }
+
+    /**
+     * Fixes the totals of the stage, messages completed afterwards are not counted.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        elapsedInSec = (double) (System.nanoTime() - startNanos) / RateScheduler.NANOS_PER_SECOND;
+        offered = runStats.getOffered().get() - startOffered;
+        success = runStats.getSuccess().get() - startSuccess;
+        failed = runStats.getFailed().get() - startFailed;
+        skipped = runStats.getSkipped().get() - startSkipped;
+        datapoints = runStats.getDatapoints().get() - startDatapoints;
+    }
+
+    long getAchievedRate() {
+        close();
+        return Math.round(success / elapsedInSec);
+    }
+
+    /**
+     * @return failed and skipped messages, percent of the messages offered by the rate scheduler
+     */
+    double getFailedPercent() {
+        close();
+        long total = offered + skipped;
+        return total > 0 ? (failed + skipped) * 100.0 / total : 0;
+    }
+
+    /**
+     * @return messages skipped by the in-flight policy, they never complete and have no latency
+     */
+    long getSkipped() {
+        close();
+        return skipped;
+    }
+
+    /**
+     * @return lines describing the stage, the summary for the run report is added to the given map
+     */
+    List<String> format(Map<String, Object> summary) {
+        close();
+        long achievedRate = getAchievedRate();
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Stage %d [%s] %s %ds: target rate: %.0f msg/s, offered rate: %d msg/s, achieved rate: %d msg/s, "
+                        + "failed: %d, skipped: %d", index + 1, name, type, durationInSec, targetRate,
+                Math.round((offered + skipped) / elapsedInSec), achievedRate, failed, skipped));
+        summary.put("name", name);
+        summary.put("type", type);
+        summary.put("durationSec", durationInSec);
+        summary.put("targetRate", Math.round(targetRate));
+        summary.put("offered", offered + skipped);
+        summary.put("acked", success);
+        summary.put("failed", failed);
+        summary.put("skipped", skipped);
+        summary.put("achievedRate", achievedRate);
+        summary.put("datapointsRate", Math.round(datapoints / elapsedInSec));
+        Map<String, Object> latencySummary = new LinkedHashMap<>();
+        latency.forEach((stats, histogram) -> {
+            lines.add(String.format("Stage %d [%s] %s", index + 1, name, stats.format(histogram)));
+            latencySummary.put(stats.getName() + " p99", histogram.getValueAtPercentile(99));
+        });
+        correctedLatency.forEach((stats, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                lines.add(String.format("Stage %d [%s] %s", index + 1, name, stats.format(stats.getName() + " corrected", histogram)));
+                latencySummary.put(stats.getName() + " corrected p99", histogram.getValueAtPercentile(99));
+            }
+        });
+        summary.put("latency", latencySummary);
+        return lines;
+    }
+
+    private static void add(Map<LatencyStats, Histogram> histograms, LatencyStats stats, Histogram interval) {
+        if (interval != null) {
+            histograms.computeIfAbsent(stats, s -> new Histogram(interval.getNumberOfSignificantValueDigits())).add(interval);
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Accounting of the messages sent during one second of the test. The iteration is completed once it was closed by
+ * the rate scheduler and every sent message has been acknowledged either as success or as failure.
+ */
+public class TestIteration {
+
+    @Getter
+    private final int number;
+    private final TestRunStats runStats;
+    private final Consumer<TestIteration> onComplete;
+
+    private final AtomicInteger offered = new AtomicInteger();
+    private final AtomicInteger success = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger alarms = new AtomicInteger();
+    private final AtomicInteger alarmReservations = new AtomicInteger();
+    private final AtomicInteger datapoints = new AtomicInteger();
+    // one extra permit is held until the iteration is closed
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    public TestIteration(int number, TestRunStats runStats, Consumer<TestIteration> onComplete) {
+        this.number = number;
+        this.runStats = runStats;
+        this.onComplete = onComplete;
+    }
+
+    public void onSent() {
+        pending.incrementAndGet();
+        offered.incrementAndGet();
+        runStats.getOffered().incrementAndGet();
+    }
+
+    public void onSuccess(int messageDatapoints) {
+        success.incrementAndGet();
+        runStats.getSuccess().incrementAndGet();
+        datapoints.addAndGet(messageDatapoints);
+        runStats.getDatapoints().addAndGet(messageDatapoints);
+        release();
+    }
+
+    public void onFailure() {
+        failed.incrementAndGet();
+        runStats.getFailed().incrementAndGet();
+        release();
+    }
+
+    /**
+     * Turns a message that was already counted as success into a failure, e.g. when an error response follows
+     * the acknowledgement of the message.
+     */
+    public void onFailureAfterSuccess(int messageDatapoints) {
+        success.decrementAndGet();
+        runStats.getSuccess().decrementAndGet();
+        datapoints.addAndGet(-messageDatapoints);
+        runStats.getDatapoints().addAndGet(-messageDatapoints);
+        failed.incrementAndGet();
+        runStats.getFailed().incrementAndGet();
+    }
+
+    public void onSkipped() {
+        skipped.incrementAndGet();
+        runStats.getSkipped().incrementAndGet();
+    }
+
+    /**
+     * A sent message that was dropped before it was published, e.g. because the queue of delayed publishes was full,
+     * is counted as skipped.
+     */
+    public void onDropped() {
+        offered.decrementAndGet();
+        runStats.getOffered().decrementAndGet();
+        onSkipped();
+        release();
+    }
+
+    /**
+     * Reserves one of the alarms of the second before the message is generated, possibly on another thread.
+     *
+     * @return false if the limit of the second is already reserved
+     */
+    public boolean tryReserveAlarm(int limit) {
+        while (true) {
+            int current = alarmReservations.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (alarmReservations.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the reservation of a message that did not trigger an alarm.
+     */
+    public void cancelAlarmReservation() {
+        alarmReservations.decrementAndGet();
+    }
+
+    public void onAlarm() {
+        alarms.incrementAndGet();
+        runStats.getAlarms().incrementAndGet();
+    }
+
+    public void close() {
+        release();
+    }
+
+    public int getOffered() {
+        return offered.get();
+    }
+
+    public int getSuccess() {
+        return success.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getAlarms() {
+        return alarms.get();
+    }
+
+    public int getDatapoints() {
+        return datapoints.get();
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() == 0) {
+            onComplete.accept(this);
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency recorded into a per-interval and a whole-run HdrHistogram. Values may be recorded from any thread,
+ * intervals are rolled over by the reporting thread.
+ * <p>
+ * Next to the latency measured from the actual send time, a coordinated omission corrected latency measured from
+ * the send time intended by the rate schedule may be recorded. When the load generator or the server stalls, fewer
+ * messages are sent and the uncorrected histogram under-reports the stall, the corrected one does not.
+ */
+public class LatencyStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    @Getter
+    private final String name;
+    @Getter
+    private final String unit;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final Recorder correctedRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram correctedTotal = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+    private Histogram correctedInterval;
+
+    public LatencyStats(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    public void record(long latency) {
+        recorder.recordValue(Math.max(0, latency));
+    }
+
+    /**
+     * Records the latency measured from the send time intended by the rate schedule.
+     */
+    public void recordCorrected(long latency) {
+        correctedRecorder.recordValue(Math.max(0, latency));
+    }
+
+    /**
+     * Returns the values recorded since the previous call and adds them to the whole-run histogram.
+     */
+    public synchronized Histogram nextInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        correctedInterval = correctedRecorder.getIntervalHistogram(correctedInterval);
+        correctedTotal.add(correctedInterval);
+        return interval;
+    }
+
+    /**
+     * @return the interval returned by the last {@link #nextInterval()} call, or null before the first one
+     */
+    public synchronized Histogram getInterval() {
+        return interval;
+    }
+
+    public synchronized Histogram getCorrectedInterval() {
+        return correctedInterval;
+    }
+
+    public synchronized Histogram getTotal() {
+        return total.copy();
+    }
+
+    public synchronized Histogram getCorrectedTotal() {
+        return correctedTotal.copy();
+    }
+
+    /**
+     * Formats the whole-run histogram followed by the corrected one, if any corrected value was recorded.
+     * Latencies recorded only as corrected ones are formatted without the empty uncorrected histogram.
+     */
+    public String formatTotal() {
+        Histogram corrected = getCorrectedTotal();
+        Histogram total = getTotal();
+        if (corrected.getTotalCount() == 0) {
+            return format(total);
+        }
+        String correctedText = format(name + " corrected", corrected);
+        if (total.getTotalCount() == 0) {
+            return correctedText;
+        }
+        return format(total) + System.lineSeparator() + correctedText;
+    }
+
+    /**
+     * Value at the percentile of the recorded latencies together with messages that never completed, e.g. the ones
+     * skipped by the in-flight policy. These count as infinitely late, so {@link Long#MAX_VALUE} is returned when the
+     * percentile falls among them.
+     */
+    public static long getValueAtPercentile(Histogram histogram, double percentile, long missing) {
+        long recorded = histogram.getTotalCount();
+        double rank = (recorded + missing) * percentile / 100;
+        if (missing > 0 && rank > recorded) {
+            return Long.MAX_VALUE;
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        return histogram.getValueAtPercentile(Math.min(100, rank * 100 / recorded));
+    }
+
+    /**
+     * Converts a recorded value of the given unit ("ns", "us" or "ms") to milliseconds.
+     */
+    public static long toMillis(long value, String unit) {
+        switch (unit) {
+            case "ns":
+                return TimeUnit.NANOSECONDS.toMillis(value);
+            case "us":
+                return TimeUnit.MICROSECONDS.toMillis(value);
+            default:
+                return value;
+        }
+    }
+
+    public String format(Histogram histogram) {
+        return format(name, histogram);
+    }
+
+    public String format(String label, Histogram histogram) {
+        return String.format("%s latency (%s) count: %d, p50: %d, p99: %d, p99.9: %d, max: %d", label, unit,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue());
+    }
+
+}
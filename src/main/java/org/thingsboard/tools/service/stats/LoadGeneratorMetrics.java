@@ -0,0 +1,183 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.thingsboard.tools.service.shared.BoundedThreadPerTaskExecutor;
+import org.thingsboard.tools.service.shared.RestClientService;
+import org.thingsboard.tools.service.shared.TestRunStats;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Self-instrumentation of the load generator. Message counters read the {@link TestRunStats} of the current run,
+ * so the hot path pays nothing extra for them; timers are recorded only where a latency is already measured.
+ * Exposed on /actuator/prometheus when the web application is enabled.
+ */
+@Service
+public class LoadGeneratorMetrics {
+
+    private final MeterRegistry registry;
+    private final RestClientService restClientService;
+
+    private final List<RunCounter> counters = List.of(
+            // TestRunStats counts the sent messages as offered, the skipped ones are not part of it
+            new RunCounter("sent", TestRunStats::getOffered),
+            new RunCounter("success", TestRunStats::getSuccess),
+            new RunCounter("failed", TestRunStats::getFailed),
+            new RunCounter("skipped", TestRunStats::getSkipped));
+    private final RunCounter datapoints = new RunCounter(null, TestRunStats::getDatapoints);
+    private final RunCounter alarms = new RunCounter(null, TestRunStats::getAlarms);
+
+    private final Timer generatorTimer;
+    private final Timer connectTimer;
+
+    private volatile TestRunStats current;
+
+    @Autowired
+    public LoadGeneratorMetrics(MeterRegistry registry, RestClientService restClientService) {
+        this.registry = registry;
+        this.restClientService = restClientService;
+        this.generatorTimer = Timer.builder("perf.generator")
+                .description("Time spent building a message payload")
+                .register(registry);
+        this.connectTimer = Timer.builder("perf.connect")
+                .description("Device connect latency, from connect request to CONNACK")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        for (RunCounter counter : counters) {
+            FunctionCounter.builder("perf.messages", counter, RunCounter::value)
+                    .tag("result", counter.result)
+                    .description("Messages scheduled by the rate scheduler, by result")
+                    .register(registry);
+        }
+        FunctionCounter.builder("perf.datapoints", datapoints, RunCounter::value).register(registry);
+        FunctionCounter.builder("perf.alarms", alarms, RunCounter::value).register(registry);
+        Gauge.builder("perf.messages.inflight", this, LoadGeneratorMetrics::inFlight)
+                .description("Messages published and not yet acknowledged or failed")
+                .register(registry);
+
+        bindExecutor(restClientService.getWorkers(), "workers");
+        bindExecutor(restClientService.getHttpExecutor(), "http");
+        bindExecutor(restClientService.getLwm2mExecutor(), "lwm2m");
+        bindExecutor(restClientService.getScheduler(), "scheduler");
+        bindEventLoopGroup(restClientService.getEventLoopGroup(), "rest");
+    }
+
+    /**
+     * Switches the message counters to a new run. Counts of the previous run are carried over, so the exported
+     * counters stay monotonic across consecutive runs in the same process.
+     */
+    public synchronized void bindRunStats(TestRunStats runStats) {
+        TestRunStats previous = current;
+        if (previous != null) {
+            counters.forEach(counter -> counter.carryOver(previous));
+            datapoints.carryOver(previous);
+            alarms.carryOver(previous);
+        }
+        current = runStats;
+    }
+
+    public void recordGenerator(long nanos) {
+        generatorTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordConnect(long nanos) {
+        connectTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void bindEventLoopGroup(EventLoopGroup group, String name) {
+        if (group == null) {
+            return;
+        }
+        Gauge.builder("perf.eventloop.pending.tasks", group, LoadGeneratorMetrics::pendingTasks)
+                .tag("group", name)
+                .description("Tasks queued on the event loops of the group")
+                .register(registry);
+    }
+
+    private void bindExecutor(ExecutorService executor, String name) {
+        if (executor == null) {
+            return;
+        }
+        if (executor instanceof BoundedThreadPerTaskExecutor bounded) {
+            Gauge.builder("executor.active", bounded, BoundedThreadPerTaskExecutor::getActiveCount)
+                    .tag("name", name)
+                    .register(registry);
+            return;
+        }
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+    }
+
+    private double inFlight() {
+        TestRunStats runStats = current;
+        if (runStats == null) {
+            return 0;
+        }
+        return Math.max(0, runStats.getOffered().get() - runStats.getSuccess().get() - runStats.getFailed().get());
+    }
+
+    private static double pendingTasks(EventLoopGroup group) {
+        long pending = 0;
+        for (EventExecutor executor : group) {
+            if (executor instanceof SingleThreadEventExecutor loop) {
+                pending += loop.pendingTasks();
+            }
+        }
+        return pending;
+    }
+
+    private class RunCounter {
+
+        private final String result;
+        private final Function<TestRunStats, AtomicLong> getter;
+        private long base;
+
+        RunCounter(String result, Function<TestRunStats, AtomicLong> getter) {
+            this.result = result;
+            this.getter = getter;
+        }
+
+        void carryOver(TestRunStats previous) {
+            base += getter.apply(previous).get();
+        }
+
+        double value() {
+            TestRunStats runStats = current;
+            return base + (runStats != null ? getter.apply(runStats).get() : 0);
+        }
+    }
+
+}
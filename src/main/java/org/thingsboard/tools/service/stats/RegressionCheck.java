@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the summary of a run written by {@link RunReportWriter} against the summary of a baseline run.
+ * Tolerances are relative, in percent of the baseline value, except the failure tolerance which is in percentage
+ * points of the failed to sent ratio.
+ */
+public class RegressionCheck {
+
+    private final double throughputTolerance;
+    private final double latencyTolerance;
+    private final double failureTolerance;
+    private final List<String> percentiles;
+
+    public RegressionCheck(double throughputTolerance, double latencyTolerance, double failureTolerance, List<String> percentiles) {
+        this.throughputTolerance = throughputTolerance;
+        this.latencyTolerance = latencyTolerance;
+        this.failureTolerance = failureTolerance;
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * @return descriptions of the regressions found, empty if the run is within the tolerances
+     */
+    public List<String> compare(JsonNode baseline, JsonNode current) {
+        List<String> regressions = new ArrayList<>();
+        JsonNode baselineTotals = baseline.path("totals");
+        JsonNode currentTotals = current.path("totals");
+
+        long baselineRate = baselineTotals.path("achievedRate").asLong();
+        long currentRate = currentTotals.path("achievedRate").asLong();
+        if (currentRate < baselineRate * (1 - throughputTolerance / 100)) {
+            regressions.add(String.format("achieved rate %d msg/s is below baseline %d msg/s by more than %.1f%%",
+                    currentRate, baselineRate, throughputTolerance));
+        }
+
+        double baselineFailures = failedPercent(baselineTotals);
+        double currentFailures = failedPercent(currentTotals);
+        if (currentFailures > baselineFailures + failureTolerance) {
+            regressions.add(String.format("failed messages %.2f%% exceed baseline %.2f%% by more than %.2f percentage points",
+                    currentFailures, baselineFailures, failureTolerance));
+        }
+
+        for (JsonNode currentLatency : current.path("latency")) {
+            String name = currentLatency.path("name").asText();
+            JsonNode baselineLatency = findLatency(baseline, name);
+            if (baselineLatency == null) {
+                continue;
+            }
+            // compare the coordinated omission corrected histograms whenever both runs have them
+            String histogram = currentLatency.has("corrected") && baselineLatency.has("corrected") ? "corrected" : "uncorrected";
+            String unit = currentLatency.path("unit").asText();
+            for (String percentile : percentiles) {
+                JsonNode baselineValue = baselineLatency.path(histogram).path(percentile);
+                JsonNode currentValue = currentLatency.path(histogram).path(percentile);
+                if (baselineValue.isMissingNode() || currentValue.isMissingNode()) {
+                    continue;
+                }
+                long limit = Math.round(baselineValue.asLong() * (1 + latencyTolerance / 100));
+                if (currentValue.asLong() > limit) {
+                    regressions.add(String.format("%s %s %s latency %d %s is above baseline %d %s by more than %.1f%%",
+                            name, histogram, percentile, currentValue.asLong(), unit, baselineValue.asLong(), unit, latencyTolerance));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Failed and skipped messages, percent of the sent and skipped ones, the same as the SLO of the throughput search.
+     */
+    private static double failedPercent(JsonNode totals) {
+        long skipped = totals.path("skipped").asLong();
+        long total = totals.path("sent").asLong() + skipped;
+        return total > 0 ? (totals.path("failed").asLong() + skipped) * 100.0 / total : 0;
+    }
+
+    private static JsonNode findLatency(JsonNode summary, String name) {
+        for (JsonNode latency : summary.path("latency")) {
+            if (name.equals(latency.path("name").asText())) {
+                return latency;
+            }
+        }
+        return null;
+    }
+
+}
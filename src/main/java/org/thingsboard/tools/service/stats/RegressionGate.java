@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Regression gate: compares the summary of the run against a baseline summary report and turns the result into
+ * the exit code of the application, picked up by {@code SpringApplication.exit}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test.regression", value = "enabled", havingValue = "true")
+public class RegressionGate implements ExitCodeGenerator {
+
+    public static final int EXIT_REGRESSION = 1;
+    public static final int EXIT_NOT_EVALUATED = 2;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${test.regression.baseline}")
+    private String baselinePath;
+    @Value("${test.regression.throughputTolerance:5}")
+    private double throughputTolerance;
+    @Value("${test.regression.latencyTolerance:20}")
+    private double latencyTolerance;
+    @Value("${test.regression.failureTolerance:1}")
+    private double failureTolerance;
+    @Value("${test.regression.percentiles:p50,p99,p999}")
+    private List<String> percentiles;
+
+    @Autowired(required = false)
+    private RunReportWriter reportWriter;
+
+    private JsonNode baseline;
+    private volatile int exitCode = EXIT_NOT_EVALUATED;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (reportWriter == null) {
+            throw new IllegalStateException("Regression gate requires the run report, please set test.report.enabled to true");
+        }
+        Path file = Paths.get(baselinePath);
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("Baseline report " + file.toAbsolutePath() + " does not exist");
+        }
+        baseline = mapper.readTree(file.toFile());
+        log.info("Run will be compared against baseline report {}", file.toAbsolutePath());
+    }
+
+    /**
+     * Compares the summary of the completed run against the baseline.
+     */
+    public void evaluate(JsonNode summary) {
+        List<String> regressions = new RegressionCheck(throughputTolerance, latencyTolerance, failureTolerance, percentiles)
+                .compare(baseline, summary);
+        if (regressions.isEmpty()) {
+            log.info("Regression gate passed: the run is within the tolerances of the baseline {}", baselinePath);
+            exitCode = 0;
+        } else {
+            regressions.forEach(regression -> log.error("Regression: {}", regression));
+            log.error("Regression gate failed: {} regressions against the baseline {}", regressions.size(), baselinePath);
+            exitCode = EXIT_REGRESSION;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        if (exitCode == EXIT_NOT_EVALUATED) {
+            log.error("Regression gate was not evaluated, the test did not complete a run");
+        }
+        return exitCode;
+    }
+
+}
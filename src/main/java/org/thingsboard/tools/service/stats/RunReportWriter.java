@@ -0,0 +1,431 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Service;
+import org.thingsboard.tools.service.rpc.RpcLoadDriver;
+import org.thingsboard.tools.service.rule.RuleChainCounterVerifier;
+import org.thingsboard.tools.service.shared.TestRunStats;
+import org.thingsboard.tools.service.ws.WsSubscriberLoad;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes a machine-readable report of the test run: a per-second time series streamed to a CSV or JSONL file while
+ * the test runs and a summary JSON with the totals, the latency histograms, the configuration, the seed and the
+ * environment once the run completes. Reports of two runs can be diffed without scraping the logs.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test.report", value = "enabled", havingValue = "true")
+public class RunReportWriter {
+
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final ObjectMapper lineMapper = new ObjectMapper();
+    private static final DateTimeFormatter FILE_TS = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+    // settings echoed into the summary, anything else may hold credentials of the server or the clients
+    private static final List<String> CONFIG_PREFIXES = List.of("test.", "device.", "gateway.", "customer.", "warmup.",
+            "mqtt.", "http.", "coap.", "rest.executor.", "rest.pool_size");
+    private static final List<String> SECRET_KEYWORDS = List.of("password", "secret", "pwd", "token", "credential");
+
+    @Value("${test.report.dir:report}")
+    private String reportDir;
+    @Value("${test.report.format:CSV}")
+    private ReportFormat format;
+    @Value("${test.instanceIdx:0}")
+    private int instanceIdx;
+
+    @Autowired
+    private ConfigurableEnvironment environment;
+    @Autowired(required = false)
+    private RuleChainCounterVerifier counterVerifier;
+    @Autowired(required = false)
+    private WsSubscriberLoad wsSubscriberLoad;
+    @Autowired(required = false)
+    private RpcLoadDriver rpcLoadDriver;
+
+    private BufferedWriter timeSeries;
+    private Path summaryFile;
+    private List<LatencyStats> latencyStats;
+    private final List<Map<String, Object>> stages = new ArrayList<>();
+    private final Map<String, Object> sections = new LinkedHashMap<>();
+    private long startTs;
+    private long lastOffered;
+    private long lastSuccess;
+    private long lastFailed;
+    private long lastSkipped;
+    private long lastAlarms;
+    private long lastDatapoints;
+    private long lastWsUpdates;
+    private long lastWsValues;
+    private long lastRpcSent;
+    private long lastRpcTimeouts;
+    private long lastRpcFailed;
+    private long lastGcCount;
+    private long lastGcTimeMs;
+
+    /**
+     * Opens the report files of a new run. The latency stats must not change until the run is finished.
+     */
+    public synchronized void start(List<LatencyStats> latencyStats) throws IOException {
+        close();
+        this.latencyStats = List.copyOf(latencyStats);
+        stages.clear();
+        sections.clear();
+        startTs = System.currentTimeMillis();
+        lastOffered = lastSuccess = lastFailed = lastSkipped = lastAlarms = lastDatapoints = 0;
+        lastWsUpdates = lastWsValues = 0;
+        lastRpcSent = lastRpcTimeouts = lastRpcFailed = 0;
+        lastGcCount = gcCount();
+        lastGcTimeMs = gcTimeMs();
+        Path dir = Paths.get(reportDir);
+        Files.createDirectories(dir);
+        String baseName = "run-" + FILE_TS.format(Instant.ofEpochMilli(startTs)) + "-" + instanceIdx;
+        summaryFile = dir.resolve(baseName + "-summary.json");
+        Path timeSeriesFile = dir.resolve(baseName + (format == ReportFormat.CSV ? "-timeseries.csv" : "-timeseries.jsonl"));
+        timeSeries = Files.newBufferedWriter(timeSeriesFile, StandardCharsets.UTF_8);
+        if (format == ReportFormat.CSV) {
+            timeSeries.write(csvHeader());
+            timeSeries.newLine();
+            timeSeries.flush();
+        }
+        log.info("Writing run report to {}", timeSeriesFile.toAbsolutePath());
+    }
+
+    /**
+     * Appends the row of a completed second. Must be called right after the latency intervals were rolled over.
+     *
+     * @param stage name of the workload profile stage of the second, null without a profile
+     */
+    public synchronized void writeSecond(int second, String stage, TestRunStats runStats) {
+        if (timeSeries == null) {
+            return;
+        }
+        long offered = runStats.getOffered().get();
+        long success = runStats.getSuccess().get();
+        long failed = runStats.getFailed().get();
+        long skipped = runStats.getSkipped().get();
+        long alarms = runStats.getAlarms().get();
+        long datapoints = runStats.getDatapoints().get();
+        long gcCount = gcCount();
+        long gcTimeMs = gcTimeMs();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("second", second);
+        row.put("stage", stage != null ? stage.replace(',', ' ') : "");
+        row.put("ts", System.currentTimeMillis());
+        row.put("offered", (offered - lastOffered) + (skipped - lastSkipped));
+        row.put("sent", offered - lastOffered);
+        row.put("acked", success - lastSuccess);
+        row.put("failed", failed - lastFailed);
+        row.put("skipped", skipped - lastSkipped);
+        row.put("alarms", alarms - lastAlarms);
+        row.put("datapoints", datapoints - lastDatapoints);
+        for (LatencyStats stats : latencyStats) {
+            String prefix = columnName(stats);
+            putPercentiles(row, prefix, stats.getInterval());
+            putPercentiles(row, prefix + "_corrected", stats.getCorrectedInterval());
+        }
+        if (counterVerifier != null) {
+            // as of the last poll of the rule chain counters
+            row.put("rule_engine_processed_rate", Math.round(counterVerifier.getProcessedRate()));
+            row.put("rule_engine_backlog", counterVerifier.getBacklog());
+        }
+        if (wsSubscriberLoad != null) {
+            long wsUpdates = wsSubscriberLoad.getUpdates();
+            long wsValues = wsSubscriberLoad.getValues();
+            row.put("ws_sessions", wsSubscriberLoad.getOpenSessions());
+            row.put("ws_updates", wsUpdates - lastWsUpdates);
+            row.put("ws_values", wsValues - lastWsValues);
+            lastWsUpdates = wsUpdates;
+            lastWsValues = wsValues;
+        }
+        if (rpcLoadDriver != null) {
+            long rpcSent = rpcLoadDriver.getSent();
+            long rpcTimeouts = rpcLoadDriver.getTimeouts();
+            long rpcFailed = rpcLoadDriver.getFailed();
+            row.put("rpc_sent", rpcSent - lastRpcSent);
+            row.put("rpc_timeouts", rpcTimeouts - lastRpcTimeouts);
+            row.put("rpc_failed", rpcFailed - lastRpcFailed);
+            lastRpcSent = rpcSent;
+            lastRpcTimeouts = rpcTimeouts;
+            lastRpcFailed = rpcFailed;
+        }
+        row.put("gc_count", gcCount - lastGcCount);
+        row.put("gc_time_ms", gcTimeMs - lastGcTimeMs);
+        row.put("heap_used_mb", heap.getUsed() >> 20);
+        row.put("heap_committed_mb", heap.getCommitted() >> 20);
+
+        lastOffered = offered;
+        lastSuccess = success;
+        lastFailed = failed;
+        lastSkipped = skipped;
+        lastAlarms = alarms;
+        lastDatapoints = datapoints;
+        lastGcCount = gcCount;
+        lastGcTimeMs = gcTimeMs;
+        try {
+            if (format == ReportFormat.CSV) {
+                timeSeries.write(String.join(",", row.values().stream().map(String::valueOf).toList()));
+            } else {
+                timeSeries.write(lineMapper.writeValueAsString(row));
+            }
+            timeSeries.newLine();
+            timeSeries.flush();
+        } catch (IOException e) {
+            log.warn("Failed to write the run report time series", e);
+        }
+    }
+
+    /**
+     * Adds the totals of a completed workload profile stage to the summary.
+     */
+    public synchronized void addStage(Map<String, Object> stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * Adds a named section, e.g. the result of the throughput search, to the summary.
+     */
+    public synchronized void addSection(String name, Object section) {
+        sections.put(name, section);
+    }
+
+    /**
+     * Writes the summary of the run and closes the time series.
+     *
+     * @param run parameters of the run, echoed as is
+     * @return the summary, or null if the report was not started
+     */
+    public synchronized ObjectNode finish(TestRunStats runStats, double elapsedInSec, Map<String, Object> run) {
+        if (summaryFile == null) {
+            return null;
+        }
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("startTs", startTs);
+        summary.put("endTs", System.currentTimeMillis());
+        summary.put("elapsedSec", elapsedInSec);
+        summary.set("run", mapper.valueToTree(run));
+
+        ObjectNode totals = summary.putObject("totals");
+        totals.put("offered", runStats.getOffered().get() + runStats.getSkipped().get());
+        totals.put("sent", runStats.getOffered().get());
+        totals.put("acked", runStats.getSuccess().get());
+        totals.put("failed", runStats.getFailed().get());
+        totals.put("skipped", runStats.getSkipped().get());
+        totals.put("alarms", runStats.getAlarms().get());
+        totals.put("datapoints", runStats.getDatapoints().get());
+        totals.put("achievedRate", Math.round(runStats.getSuccess().get() / elapsedInSec));
+        totals.put("datapointsRate", Math.round(runStats.getDatapoints().get() / elapsedInSec));
+
+        ArrayNode latency = summary.putArray("latency");
+        for (LatencyStats stats : latencyStats) {
+            ObjectNode node = latency.addObject();
+            node.put("name", stats.getName());
+            node.put("unit", stats.getUnit());
+            node.set("uncorrected", toNode(stats.getTotal()));
+            Histogram corrected = stats.getCorrectedTotal();
+            if (corrected.getTotalCount() > 0) {
+                node.set("corrected", toNode(corrected));
+            }
+        }
+
+        if (!stages.isEmpty()) {
+            summary.set("stages", mapper.valueToTree(stages));
+        }
+        sections.forEach((name, section) -> summary.set(name, mapper.valueToTree(section)));
+
+        ObjectNode jvm = summary.putObject("jvm");
+        jvm.put("gcCount", gcCount());
+        jvm.put("gcTimeMs", gcTimeMs());
+        jvm.put("heapMaxMb", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax() >> 20);
+
+        summary.set("environment", mapper.valueToTree(environment()));
+        summary.set("config", mapper.valueToTree(config()));
+        try {
+            mapper.writeValue(summaryFile.toFile(), summary);
+            log.info("Run report summary written to {}", summaryFile.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Failed to write the run report summary", e);
+        }
+        close();
+        summaryFile = null;
+        return summary;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (timeSeries != null) {
+            try {
+                timeSeries.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the run report time series", e);
+            }
+            timeSeries = null;
+        }
+    }
+
+    private String csvHeader() {
+        StringBuilder header = new StringBuilder("second,stage,ts,offered,sent,acked,failed,skipped,alarms,datapoints");
+        for (LatencyStats stats : latencyStats) {
+            String prefix = columnName(stats);
+            for (String suffix : new String[]{"", "_corrected"}) {
+                header.append(',').append(prefix).append(suffix).append("_p50")
+                        .append(',').append(prefix).append(suffix).append("_p99")
+                        .append(',').append(prefix).append(suffix).append("_p999")
+                        .append(',').append(prefix).append(suffix).append("_max");
+            }
+        }
+        if (counterVerifier != null) {
+            header.append(",rule_engine_processed_rate,rule_engine_backlog");
+        }
+        if (wsSubscriberLoad != null) {
+            header.append(",ws_sessions,ws_updates,ws_values");
+        }
+        if (rpcLoadDriver != null) {
+            header.append(",rpc_sent,rpc_timeouts,rpc_failed");
+        }
+        return header.append(",gc_count,gc_time_ms,heap_used_mb,heap_committed_mb").toString();
+    }
+
+    private static void putPercentiles(Map<String, Object> row, String prefix, Histogram histogram) {
+        boolean empty = histogram == null || histogram.getTotalCount() == 0;
+        row.put(prefix + "_p50", empty ? "" : histogram.getValueAtPercentile(50));
+        row.put(prefix + "_p99", empty ? "" : histogram.getValueAtPercentile(99));
+        row.put(prefix + "_p999", empty ? "" : histogram.getValueAtPercentile(99.9));
+        row.put(prefix + "_max", empty ? "" : histogram.getMaxValue());
+    }
+
+    private static ObjectNode toNode(Histogram histogram) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("count", histogram.getTotalCount());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            node.put(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+        }
+        node.put("max", histogram.getMaxValue());
+        node.put("mean", histogram.getMean());
+        return node;
+    }
+
+    private static String columnName(LatencyStats stats) {
+        return (stats.getName() + "_" + stats.getUnit()).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_");
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMs() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static Map<String, Object> environment() {
+        Map<String, Object> env = new TreeMap<>();
+        env.put("javaVersion", System.getProperty("java.version"));
+        env.put("javaVm", System.getProperty("java.vm.name"));
+        env.put("osName", System.getProperty("os.name"));
+        env.put("osArch", System.getProperty("os.arch"));
+        env.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        env.put("maxHeapMb", Runtime.getRuntime().maxMemory() >> 20);
+        env.put("jvmArguments", ManagementFactory.getRuntimeMXBean().getInputArguments());
+        try {
+            env.put("hostname", InetAddress.getLocalHost().getHostName());
+        } catch (IOException e) {
+            env.put("hostname", "unknown");
+        }
+        return env;
+    }
+
+    /**
+     * Resolved values of the test, device, gateway and transport settings of the application configuration file.
+     * Other settings, e.g. the REST credentials and the LwM2M key stores, are not echoed, secrets are masked.
+     */
+    private Map<String, Object> config() {
+        Map<String, Object> config = new TreeMap<>();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (source instanceof OriginTrackedMapPropertySource && source instanceof EnumerablePropertySource<?> enumerable) {
+                for (String name : enumerable.getPropertyNames()) {
+                    if (config.containsKey(name) || !isReported(name)) {
+                        continue;
+                    }
+                    if (isSecret(name)) {
+                        config.put(name, "******");
+                    } else {
+                        try {
+                            config.put(name, environment.getProperty(name));
+                        } catch (RuntimeException e) {
+                            config.put(name, String.valueOf(enumerable.getProperty(name)));
+                        }
+                    }
+                }
+            }
+        }
+        return config;
+    }
+
+    static boolean isReported(String name) {
+        return CONFIG_PREFIXES.stream().anyMatch(name::startsWith);
+    }
+
+    static boolean isSecret(String name) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        return SECRET_KEYWORDS.stream().anyMatch(lowerName::contains);
+    }
+
+}
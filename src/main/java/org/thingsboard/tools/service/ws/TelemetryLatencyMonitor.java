@@ -0,0 +1,149 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.tools.service.shared.RestClientService;
+import org.thingsboard.tools.service.stats.LatencyStats;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures publish to delivery latency: subscribes over WebSocket to the latest telemetry of a sample of devices
+ * and compares the "ts" stamped into each message by the generator with the time the update is delivered.
+ * The ts is the send time intended by the rate schedule, so time spent waiting for the scheduler is part of the latency
+ * and it is recorded as the coordinated omission corrected one. Messages skipped by the in-flight policy are not part of it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test.latency", value = "enabled", havingValue = "true")
+public class TelemetryLatencyMonitor {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${rest.url}")
+    private String restUrl;
+    @Value("${test.latency.devices:100}")
+    @Getter
+    private int deviceCount;
+
+    @Autowired
+    private RestClientService restClientService;
+
+    @Getter
+    private final LatencyStats stats = new LatencyStats("End-to-end", "ms");
+
+    private WebSocket webSocket;
+    private volatile long startTs;
+
+    public void start(List<DeviceId> deviceIds) throws Exception {
+        startTs = System.currentTimeMillis();
+        String wsUrl = restUrl.replaceFirst("^http", "ws") + "/api/ws/plugins/telemetry";
+        webSocket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create(wsUrl), new Listener())
+                .get(10, TimeUnit.SECONDS);
+        webSocket.sendText(mapper.writeValueAsString(toSubscribeCmd(deviceIds)), true).get(10, TimeUnit.SECONDS);
+        log.info("Subscribed to telemetry of {} devices to measure end-to-end latency", deviceIds.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (webSocket != null && !webSocket.isOutputClosed()) {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "");
+        }
+    }
+
+    private ObjectNode toSubscribeCmd(List<DeviceId> deviceIds) {
+        ObjectNode msg = mapper.createObjectNode();
+        msg.putObject("authCmd")
+                .put("cmdId", 0)
+                .put("token", restClientService.getRestClient().getToken());
+        ArrayNode cmds = msg.putArray("cmds");
+        int cmdId = 1;
+        for (DeviceId deviceId : deviceIds) {
+            cmds.addObject()
+                    .put("type", "TIMESERIES")
+                    .put("entityType", "DEVICE")
+                    .put("entityId", deviceId.getId().toString())
+                    .put("scope", "LATEST_TELEMETRY")
+                    .put("cmdId", cmdId++);
+        }
+        return msg;
+    }
+
+    void onUpdate(String text, long receivedTs) {
+        try {
+            JsonNode data = mapper.readTree(text).get("data");
+            if (data == null || !data.isObject()) {
+                return;
+            }
+            long ts = 0;
+            Iterator<Map.Entry<String, JsonNode>> fields = data.fields();
+            while (fields.hasNext()) {
+                JsonNode values = fields.next().getValue();
+                if (values.isArray() && values.size() > 0) {
+                    ts = Math.max(ts, values.get(0).get(0).asLong());
+                }
+            }
+            // skip the initial snapshot of values published before the test start
+            if (ts >= startTs) {
+                stats.recordCorrected(receivedTs - ts);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to process telemetry update: {}", text, e);
+        }
+    }
+
+    private class Listener implements WebSocket.Listener {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                onUpdate(buffer.toString(), System.currentTimeMillis());
+                buffer.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            log.warn("Telemetry WebSocket error", error);
+        }
+    }
+
+}
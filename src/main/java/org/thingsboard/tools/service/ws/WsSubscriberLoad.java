@@ -0,0 +1,479 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.thingsboard.rest.client.RestClient;
+import org.thingsboard.server.common.data.Customer;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.tools.service.shared.RestClientService;
+import org.thingsboard.tools.service.stats.LatencyStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Simulates dashboards watching the simulated devices: opens many WebSocket telemetry sessions, each subscribed to
+ * a subset of a pool of devices, and measures the rate of the delivered updates and their delivery latency while the
+ * device load runs. A device of the pool is watched by sessions * devicesPerSession / pool sessions on average, so
+ * every message it publishes fans out into that many updates.
+ * <p>
+ * Customer sessions log in as the users created by the customer manager. Customer users only see the devices of
+ * their customer, so the devices of the pool are assigned to the customers round-robin before the sessions open.
+ * The devices assigned by the load are unassigned again when it stops, devices that belonged to another customer
+ * before are left unassigned.
+ * <p>
+ * The latency is measured from the "ts" of the payload like the one of {@link TelemetryLatencyMonitor}, the ts is the
+ * send time intended by the rate schedule, so the latency is recorded as the coordinated omission corrected one.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "test.ws", value = "enabled", havingValue = "true")
+public class WsSubscriberLoad {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${rest.url}")
+    private String restUrl;
+    @Value("${customer.startIdx}")
+    private int customerStartIdx;
+    @Value("${customer.endIdx}")
+    private int customerEndIdx;
+    @Value("${test.ws.sessions:100}")
+    private int sessionCount;
+    @Value("${test.ws.devicesPerSession:10}")
+    private int devicesPerSession;
+    @Value("${test.ws.devices:1000}")
+    @Getter
+    private int deviceCount;
+    @Value("${test.ws.scope:LATEST_TELEMETRY}")
+    private SubscriptionScope scope;
+    @Value("${test.ws.timeWindow:60000}")
+    private long timeWindowMs;
+    @Value("${test.ws.user:TENANT}")
+    private SubscriberAuthority authority;
+    @Value("${test.ws.connectRate:50}")
+    private int connectRate;
+    @Value("${test.ws.logInterval:5}")
+    private int logIntervalInSec;
+
+    @Autowired
+    private RestClientService restClientService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Getter
+    private final LatencyStats stats = new LatencyStats("WS update", "ms");
+
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    // devices assigned to the customers by the load, unassigned again when it stops
+    private final List<DeviceId> assignedDevices = new CopyOnWriteArrayList<>();
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong values = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private HttpClient httpClient;
+    private ScheduledFuture<?> logFuture;
+    private volatile long startTs;
+    private volatile long subscribedTs;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder().executor(restClientService.getWorkers()).build();
+        Gauge.builder("perf.ws.sessions", openSessions, AtomicInteger::get)
+                .description("Open WebSocket subscriber sessions")
+                .register(meterRegistry);
+        FunctionCounter.builder("perf.ws.updates", updates, AtomicLong::get)
+                .description("Telemetry updates delivered to the WebSocket subscribers")
+                .register(meterRegistry);
+        FunctionCounter.builder("perf.ws.values", values, AtomicLong::get)
+                .description("Telemetry values delivered to the WebSocket subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the sessions at the configured connect rate and subscribes them to subsets of the given devices.
+     * Blocks until all sessions are opened or failed.
+     */
+    public void start(List<DeviceId> deviceIds) throws Exception {
+        if (deviceIds.isEmpty()) {
+            log.warn("No devices to subscribe the WebSocket sessions to");
+            return;
+        }
+        startTs = System.currentTimeMillis();
+        updates.set(0);
+        values.set(0);
+        errors.set(0);
+        List<String> tokens = new ArrayList<>();
+        List<List<DeviceId>> devicesByToken = new ArrayList<>();
+        if (authority == SubscriberAuthority.CUSTOMER) {
+            loginCustomers(deviceIds, tokens, devicesByToken);
+        } else {
+            tokens.add(restClientService.getRestClient().getToken());
+            devicesByToken.add(deviceIds);
+        }
+        String wsUrl = restUrl.replaceFirst("^http", "ws") + "/api/ws/plugins/telemetry";
+        long pauseNanos = connectRate > 0 ? TimeUnit.SECONDS.toNanos(1) / connectRate : 0;
+        log.info("Opening {} WebSocket sessions as {} users, {} subscriptions of {} devices each...",
+                sessionCount, authority, scope, devicesPerSession);
+        List<CompletionStage<?>> opened = new ArrayList<>(sessionCount);
+        for (int i = 0; i < sessionCount; i++) {
+            int userIdx = i % tokens.size();
+            List<DeviceId> userDevices = devicesByToken.get(userIdx);
+            List<DeviceId> sessionDevices = pickDevices(userDevices, i / tokens.size());
+            Session session = new Session(i, tokens.get(userIdx), sessionDevices);
+            sessions.add(session);
+            opened.add(session.open(wsUrl));
+            if (pauseNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(pauseNanos);
+            }
+        }
+        for (CompletionStage<?> stage : opened) {
+            try {
+                stage.toCompletableFuture().get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+        subscribedTs = System.currentTimeMillis();
+        log.info("Opened {} of {} WebSocket sessions", openSessions.get(), sessionCount);
+        logFuture = restClientService.getLogScheduler().scheduleAtFixedRate(new Runnable() {
+            private long lastUpdates;
+            private long lastValues;
+
+            @Override
+            public void run() {
+                long updatesNow = updates.get();
+                long valuesNow = values.get();
+                log.info("WS subscribers: {} open sessions, {} updates/s, {} values/s",
+                        openSessions.get(), (updatesNow - lastUpdates) / logIntervalInSec, (valuesNow - lastValues) / logIntervalInSec);
+                lastUpdates = updatesNow;
+                lastValues = valuesNow;
+            }
+        }, logIntervalInSec, logIntervalInSec, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Closes the sessions and unassigns the devices assigned to the customers.
+     *
+     * @return summary of the delivered updates
+     */
+    public Map<String, Object> stop() {
+        destroy();
+        double elapsedInSec = Math.max(1, System.currentTimeMillis() - subscribedTs) / 1000.0;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("sessions", sessionCount);
+        summary.put("user", authority.name());
+        summary.put("scope", scope.name());
+        summary.put("devicesPerSession", devicesPerSession);
+        summary.put("errors", errors.get());
+        summary.put("updates", updates.get());
+        summary.put("values", values.get());
+        summary.put("updateRate", Math.round(updates.get() / elapsedInSec));
+        summary.put("valueRate", Math.round(values.get() / elapsedInSec));
+        if (subscribedTs > 0) {
+            log.info("WS subscribers: {} updates, {} values delivered, {} updates/s, {} errors",
+                    updates.get(), values.get(), summary.get("updateRate"), errors.get());
+        }
+        return summary;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (logFuture != null) {
+            logFuture.cancel(false);
+            logFuture = null;
+        }
+        for (Session session : sessions) {
+            session.close();
+        }
+        sessions.clear();
+        unassignDevices();
+    }
+
+    public int getOpenSessions() {
+        return openSessions.get();
+    }
+
+    public long getUpdates() {
+        return updates.get();
+    }
+
+    public long getValues() {
+        return values.get();
+    }
+
+    /**
+     * Assigns the devices to the customers round-robin and logs in as the user of every customer that exists.
+     * The assignments run in parallel on the REST executor.
+     */
+    private void loginCustomers(List<DeviceId> deviceIds, List<String> tokens, List<List<DeviceId>> devicesByToken) throws InterruptedException {
+        RestClient tenantClient = restClientService.getRestClient();
+        Map<DeviceId, CustomerId> assignments = new LinkedHashMap<>();
+        for (int i = customerStartIdx; i < customerEndIdx; i++) {
+            String title = "C" + String.format("%8d", i).replace(" ", "0");
+            Optional<Customer> customer = tenantClient.getTenantCustomer(title);
+            if (customer.isEmpty()) {
+                log.warn("Customer {} not found, its user is not used by the WebSocket sessions", title);
+                continue;
+            }
+            List<DeviceId> customerDevices = new ArrayList<>();
+            for (int j = i - customerStartIdx; j < deviceIds.size(); j += customerEndIdx - customerStartIdx) {
+                assignments.put(deviceIds.get(j), customer.get().getId());
+                customerDevices.add(deviceIds.get(j));
+            }
+            if (customerDevices.isEmpty()) {
+                continue;
+            }
+            RestClient customerClient = new RestClient(restUrl);
+            customerClient.login("user@customer" + i + ".com", "customer");
+            tokens.add(customerClient.getToken());
+            devicesByToken.add(customerDevices);
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalStateException("No customer users to open the WebSocket sessions, create the customers first");
+        }
+        int assigned = forEachDevice(new ArrayList<>(assignments.keySet()), "assign", deviceId -> {
+            tenantClient.assignDeviceToCustomer(assignments.get(deviceId), deviceId);
+            assignedDevices.add(deviceId);
+        });
+        log.info("Assigned {} of {} devices to {} customers for the WebSocket sessions", assigned, assignments.size(), tokens.size());
+    }
+
+    private void unassignDevices() {
+        if (assignedDevices.isEmpty()) {
+            return;
+        }
+        List<DeviceId> devices = new ArrayList<>(assignedDevices);
+        assignedDevices.clear();
+        RestClient tenantClient = restClientService.getRestClient();
+        try {
+            int unassigned = forEachDevice(devices, "unassign", tenantClient::unassignDeviceFromCustomer);
+            log.info("Unassigned {} of {} devices from the customers of the WebSocket sessions", unassigned, devices.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while unassigning {} devices from the customers", devices.size());
+        }
+    }
+
+    /**
+     * Runs the REST call for every device on the REST executor and waits for all of them.
+     *
+     * @return number of the devices the call succeeded for
+     */
+    private int forEachDevice(List<DeviceId> deviceIds, String action, Consumer<DeviceId> call) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(deviceIds.size());
+        AtomicInteger count = new AtomicInteger();
+        for (DeviceId deviceId : deviceIds) {
+            restClientService.getHttpExecutor().submit(() -> {
+                try {
+                    call.accept(deviceId);
+                    count.incrementAndGet();
+                } catch (Exception e) {
+                    log.warn("Failed to {} device {}", action, deviceId, e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        return count.get();
+    }
+
+    /**
+     * The n-th session of a user watches the next window of its devices, wrapping around the end of the list.
+     */
+    private List<DeviceId> pickDevices(List<DeviceId> deviceIds, int n) {
+        int count = Math.min(devicesPerSession, deviceIds.size());
+        List<DeviceId> result = new ArrayList<>(count);
+        int from = (int) ((long) n * count % deviceIds.size());
+        for (int i = 0; i < count; i++) {
+            result.add(deviceIds.get((from + i) % deviceIds.size()));
+        }
+        return result;
+    }
+
+    private ObjectNode toSubscribeCmd(String token, List<DeviceId> deviceIds) {
+        ObjectNode msg = mapper.createObjectNode();
+        msg.putObject("authCmd")
+                .put("cmdId", 0)
+                .put("token", token);
+        ArrayNode cmds = msg.putArray("cmds");
+        int cmdId = 1;
+        for (DeviceId deviceId : deviceIds) {
+            ObjectNode cmd = cmds.addObject()
+                    .put("type", "TIMESERIES")
+                    .put("entityType", "DEVICE")
+                    .put("entityId", deviceId.getId().toString())
+                    .put("cmdId", cmdId++);
+            if (scope == SubscriptionScope.TIMESERIES) {
+                cmd.put("startTs", System.currentTimeMillis() - timeWindowMs)
+                        .put("timeWindow", timeWindowMs)
+                        .put("interval", 1000)
+                        .put("limit", 1000)
+                        .put("agg", "NONE");
+            } else {
+                cmd.put("scope", "LATEST_TELEMETRY");
+            }
+        }
+        return msg;
+    }
+
+    void onUpdate(String text, long receivedTs) {
+        try {
+            JsonNode msg = mapper.readTree(text);
+            JsonNode errorCode = msg.get("errorCode");
+            if (errorCode != null && errorCode.asInt() != 0) {
+                if (errors.getAndIncrement() == 0) {
+                    log.warn("WebSocket subscription failed: {}", text);
+                }
+                return;
+            }
+            JsonNode data = msg.get("data");
+            if (data == null || !data.isObject()) {
+                return;
+            }
+            long ts = 0;
+            int count = 0;
+            Iterator<Map.Entry<String, JsonNode>> fields = data.fields();
+            while (fields.hasNext()) {
+                JsonNode keyValues = fields.next().getValue();
+                if (!keyValues.isArray()) {
+                    continue;
+                }
+                for (JsonNode value : keyValues) {
+                    long valueTs = value.get(0).asLong();
+                    // skip the initial snapshot and the history of the time window
+                    if (valueTs >= startTs) {
+                        ts = Math.max(ts, valueTs);
+                        count++;
+                    }
+                }
+            }
+            if (count > 0) {
+                updates.incrementAndGet();
+                values.addAndGet(count);
+                stats.recordCorrected(receivedTs - ts);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to process telemetry update: {}", text, e);
+        }
+    }
+
+    private class Session implements WebSocket.Listener {
+
+        private final int idx;
+        private final String token;
+        private final List<DeviceId> deviceIds;
+        private final StringBuilder buffer = new StringBuilder();
+        private volatile WebSocket webSocket;
+
+        Session(int idx, String token, List<DeviceId> deviceIds) {
+            this.idx = idx;
+            this.token = token;
+            this.deviceIds = deviceIds;
+        }
+
+        CompletionStage<?> open(String wsUrl) {
+            return httpClient.newWebSocketBuilder()
+                    .buildAsync(URI.create(wsUrl), this)
+                    .thenCompose(ws -> {
+                        webSocket = ws;
+                        try {
+                            return ws.sendText(mapper.writeValueAsString(toSubscribeCmd(token, deviceIds)), true);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .whenComplete((ws, e) -> {
+                        if (e != null) {
+                            log.warn("[{}] Failed to open WebSocket session", idx, e);
+                        }
+                    });
+        }
+
+        void close() {
+            WebSocket ws = webSocket;
+            if (ws != null && !ws.isOutputClosed()) {
+                ws.sendClose(WebSocket.NORMAL_CLOSURE, "");
+            }
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            openSessions.incrementAndGet();
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                onUpdate(buffer.toString(), System.currentTimeMillis());
+                buffer.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            openSessions.decrementAndGet();
+            if (statusCode != WebSocket.NORMAL_CLOSURE) {
+                log.warn("[{}] WebSocket session closed: {} {}", idx, statusCode, reason);
+            }
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            openSessions.decrementAndGet();
+            errors.incrementAndGet();
+            log.warn("[{}] WebSocket session error", idx, error);
+        }
+    }
+
+}
@@ -18,6 +18,10 @@ package org.thingsboard.tools.service.device;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.DeviceProfile;
+import org.thingsboard.server.common.data.device.profile.MqttDeviceProfileTransportConfiguration;
+import org.thingsboard.server.common.data.device.profile.ProtoTransportPayloadConfiguration;
+import org.thingsboard.tools.service.msg.template.ProtoPayloadBuilder;
 
 import java.io.IOException;
 import java.util.List;
@@ -38,7 +42,8 @@ class DeviceProfileManagerImplTest {
     @Test
     void testDeviceProfileResourceFiles() throws IOException {
         List<String> files = deviceProfileManager.getFiles();
-        assertThat(files).contains("smart_meter.json", "smart_tracker.json", "industrial_plc.json");
+        assertThat(files).contains("smart_meter.json", "smart_tracker.json", "industrial_plc.json",
+                "smart_meter_protobuf.json", "smart_tracker_protobuf.json", "industrial_plc_protobuf.json");
     }
 
     @Test
@@ -47,4 +52,21 @@ class DeviceProfileManagerImplTest {
         assertThat(fileContent).isNotEmpty();
     }
 
+    @Test
+    void testProtobufDeviceProfileSchema() {
+        DeviceProfile deviceProfile = deviceProfileManager.loadDeviceProfile("smart_meter_protobuf.json");
+        MqttDeviceProfileTransportConfiguration transport =
+                (MqttDeviceProfileTransportConfiguration) deviceProfile.getProfileData().getTransportConfiguration();
+        ProtoTransportPayloadConfiguration payload = (ProtoTransportPayloadConfiguration) transport.getTransportPayloadTypeConfiguration();
+
+        // the same values as SmartMeterTelemetryGenerator
+        ProtoPayloadBuilder values = new ProtoPayloadBuilder()
+                .intValue("pulseCounter", 0)
+                .booleanValue("leakage", () -> false)
+                .intValue("batteryLevel", 0);
+        assertThat(deviceProfile.getName()).isEqualTo("SMART_METER_PROTOBUF");
+        assertThat(payload.getDeviceTelemetryProtoSchema()).isEqualTo(values.toSchema("smartmeter", "SmartMeterTelemetry", true));
+        assertThat(payload.getDeviceAttributesProtoSchema()).isEqualTo(values.toSchema("smartmeter", "SmartMeterAttributes", false));
+    }
+
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectRateLimiterTest {
+
+    @Test
+    void testBackOffAndRecovery() {
+        ConnectRateLimiter limiter = new ConnectRateLimiter(100, 0.1);
+
+        for (int i = 0; i < 8; i++) {
+            limiter.onSuccess();
+        }
+        limiter.onFailure();
+        limiter.onFailure();
+        limiter.adjust();
+        assertThat(limiter.getRate()).isEqualTo(50);
+
+        limiter.onFailure();
+        limiter.adjust();
+        assertThat(limiter.getRate()).isEqualTo(25);
+
+        limiter.onSuccess();
+        limiter.adjust();
+        assertThat(limiter.getRate()).isEqualTo(35);
+
+        // seconds without any connect attempt keep the rate
+        limiter.adjust();
+        assertThat(limiter.getRate()).isEqualTo(35);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess();
+            limiter.adjust();
+        }
+        assertThat(limiter.getRate()).isEqualTo(100);
+    }
+
+    @Test
+    void testRateIsLimited() {
+        ConnectRateLimiter limiter = new ConnectRateLimiter(1000, 0.1);
+        long start = System.nanoTime();
+        // the first second worth of tokens is available immediately
+        for (int i = 0; i < 1100; i++) {
+            limiter.acquire();
+        }
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(90_000_000L);
+    }
+
+}
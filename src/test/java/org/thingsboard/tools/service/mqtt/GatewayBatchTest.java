@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.tools.service.shared.TestIteration;
+import org.thingsboard.tools.service.shared.TestRunStats;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayBatchTest {
+
+    private final TestIteration iteration = new TestIteration(0, new TestRunStats(), it -> {});
+
+    @Test
+    void testTelemetryBatch() {
+        GatewayBatch batch = new GatewayBatch(true);
+        ByteBuf first = body("{\"ts\":1,\"values\":{\"a\":1}}");
+
+        assertThat(batch.add("DW00000001", first, iteration, 1, 0L)).isTrue();
+        assertThat(batch.add("DW00000002", body("{\"ts\":1,\"values\":{\"a\":2}}"), iteration, 1, 0L)).isTrue();
+        assertThat(batch.add("DW00000001", body("{\"ts\":2,\"values\":{\"a\":3}}"), iteration, 1, 0L)).isTrue();
+        assertThat(batch.getMessageCount()).isEqualTo(3);
+
+        GatewayBatch.Drained drained = batch.drain(UnpooledByteBufAllocator.DEFAULT);
+
+        assertThat(drained.payload().toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"DW00000001\":[{\"ts\":1,\"values\":{\"a\":1}},{\"ts\":2,\"values\":{\"a\":3}}]," +
+                        "\"DW00000002\":[{\"ts\":1,\"values\":{\"a\":2}}]}");
+        assertThat(drained.entries()).hasSize(3);
+        assertThat(first.refCnt()).isZero();
+        assertThat(batch.getMessageCount()).isZero();
+        assertThat(batch.drain(UnpooledByteBufAllocator.DEFAULT)).isNull();
+        drained.payload().release();
+    }
+
+    @Test
+    void testAttributesOfDeviceAreNotRepeated() {
+        GatewayBatch batch = new GatewayBatch(false);
+
+        assertThat(batch.add("DW00000001", body("{\"a\":1}"), iteration, 1, 0L)).isTrue();
+        assertThat(batch.add("DW00000001", body("{\"a\":2}"), iteration, 1, 0L)).isFalse();
+
+        GatewayBatch.Drained drained = batch.drain(UnpooledByteBufAllocator.DEFAULT);
+        assertThat(drained.payload().toString(StandardCharsets.UTF_8)).isEqualTo("{\"DW00000001\":{\"a\":1}}");
+        drained.payload().release();
+    }
+
+    @Test
+    void testFailedDrainFailsPendingMessages() {
+        TestRunStats runStats = new TestRunStats();
+        TestIteration pending = new TestIteration(1, runStats, it -> {});
+        GatewayBatch batch = new GatewayBatch(true);
+        ByteBuf released = body("{\"ts\":1,\"values\":{\"a\":1}}");
+        pending.onSent();
+        assertThat(batch.add("DW00000001", released, pending, 1, 0L)).isTrue();
+        long generation = batch.getGeneration();
+        released.release();
+
+        assertThatThrownBy(() -> batch.drain(UnpooledByteBufAllocator.DEFAULT)).isInstanceOf(RuntimeException.class);
+
+        assertThat(pending.getFailed()).isEqualTo(1);
+        assertThat(runStats.getFailed().get()).isEqualTo(1);
+        assertThat(batch.getMessageCount()).isZero();
+        assertThat(batch.getGeneration()).isEqualTo(generation + 1);
+        assertThat(batch.drain(UnpooledByteBufAllocator.DEFAULT)).isNull();
+    }
+
+    private static ByteBuf body(String json) {
+        return Unpooled.copiedBuffer(json, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightWindowTest {
+
+    @Test
+    void testWindowIsBounded() {
+        InFlightWindow window = new InFlightWindow(2);
+
+        assertThat(window.tryAcquire()).isTrue();
+        assertThat(window.tryAcquire()).isTrue();
+        assertThat(window.tryAcquire()).isFalse();
+
+        window.release();
+        assertThat(window.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testDelayedPublishRunsOnRelease() {
+        InFlightWindow window = new InFlightWindow(1);
+        List<String> published = new ArrayList<>();
+
+        assertThat(window.tryAcquire()).isTrue();
+        assertThat(window.tryReserveDelay()).isTrue();
+        window.delay(() -> published.add("delayed"));
+        assertThat(published).isEmpty();
+
+        window.release();
+        assertThat(published).containsExactly("delayed");
+        assertThat(window.getInFlight()).isEqualTo(1);
+
+        window.release();
+        assertThat(window.getInFlight()).isZero();
+    }
+
+    @Test
+    void testDelayQueueIsBoundedByWindowSize() {
+        InFlightWindow window = new InFlightWindow(2);
+        List<String> published = new ArrayList<>();
+
+        assertThat(window.tryAcquire()).isTrue();
+        assertThat(window.tryAcquire()).isTrue();
+        assertThat(window.tryReserveDelay()).isTrue();
+        window.delay(() -> published.add("first"));
+        assertThat(window.tryReserveDelay()).isTrue();
+        window.delay(() -> published.add("second"));
+        assertThat(window.tryReserveDelay()).isFalse();
+        assertThat(window.getDelayed()).isEqualTo(2);
+
+        window.release();
+        assertThat(published).containsExactly("first");
+        assertThat(window.getDelayed()).isEqualTo(1);
+        assertThat(window.tryReserveDelay()).isTrue();
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.thingsboard.tools.service.msg.template.PayloadWriter.writeBoolean;
+import static org.thingsboard.tools.service.msg.template.PayloadWriter.writeDecimal;
+import static org.thingsboard.tools.service.msg.template.PayloadWriter.writeLong;
+
+class MessageTemplateTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private PayloadTemplate telemetryBody() {
+        return PayloadTemplate.builder()
+                .literal("{\"ts\":").ts()
+                .literal(",\"values\":").beginObject()
+                .field("counter", (out, ctx) -> writeLong(out, -1234567))
+                .field("leakage", (out, ctx) -> writeBoolean(out, true))
+                .field("level", (out, ctx) -> writeDecimal(out, 3.14159, 3))
+                .field("constant", "10")
+                .endObject().literal("}")
+                .build();
+    }
+
+    @Test
+    void testDeviceTelemetry() throws Exception {
+        MessageTemplate template = new MessageTemplate(telemetryBody(), false, true, 0);
+
+        JsonNode json = mapper.readTree(template.encode("DW00000001"));
+
+        assertThat(json.get("ts").asLong()).isPositive();
+        assertThat(json.get("values").get("counter").asLong()).isEqualTo(-1234567);
+        assertThat(json.get("values").get("leakage").asBoolean()).isTrue();
+        assertThat(json.get("values").get("level").asText()).isEqualTo("3.142");
+        assertThat(json.get("values").get("constant").asInt()).isEqualTo(10);
+    }
+
+    @Test
+    void testGatewayTelemetry() throws Exception {
+        MessageTemplate template = new MessageTemplate(telemetryBody(), true, true, 0);
+
+        JsonNode json = mapper.readTree(template.encode("DW00000001"));
+
+        assertThat(json.get("DW00000001").isArray()).isTrue();
+        assertThat(json.get("DW00000001").get(0).get("values").get("counter").asLong()).isEqualTo(-1234567);
+    }
+
+    @Test
+    void testRingPatchesTs() throws Exception {
+        MessageTemplate template = new MessageTemplate(telemetryBody(), false, true, 4);
+        long ts = System.currentTimeMillis() + 12345;
+
+        ByteBuf buf = Unpooled.buffer();
+        template.write(buf, "DW00000001", ts);
+        JsonNode json = mapper.readTree(ByteBufUtil.getBytes(buf));
+
+        assertThat(json.get("ts").asLong()).isEqualTo(ts);
+        assertThat(json.get("values").get("counter").asLong()).isEqualTo(-1234567);
+    }
+
+    @Test
+    void testEncodeWithIntendedTs() throws Exception {
+        MessageTemplate template = new MessageTemplate(telemetryBody(), false, true, 0);
+        long intendedTs = System.currentTimeMillis() - 5000;
+
+        JsonNode json = mapper.readTree(template.encode("DW00000001", intendedTs));
+
+        assertThat(json.get("ts").asLong()).isEqualTo(intendedTs);
+    }
+
+    @Test
+    void testWriteToPooledBuffer() throws Exception {
+        MessageTemplate template = new MessageTemplate(telemetryBody(), true, true, 0);
+
+        ByteBuf buf = template.write(PooledByteBufAllocator.DEFAULT, "DW00000001");
+        try {
+            assertThat(buf.refCnt()).isEqualTo(1);
+            JsonNode json = mapper.readTree(ByteBufUtil.getBytes(buf));
+            assertThat(json.get("DW00000001").get(0).get("values").get("leakage").asBoolean()).isTrue();
+        } finally {
+            buf.release();
+        }
+    }
+
+}
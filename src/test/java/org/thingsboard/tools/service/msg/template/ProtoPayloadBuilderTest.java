@@ -0,0 +1,108 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.msg.template;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProtoPayloadBuilderTest {
+
+    private static final long TS = 1_700_000_000_000L;
+
+    private ProtoPayloadBuilder values() {
+        return new ProtoPayloadBuilder()
+                .intValue("a", 5)
+                .booleanValue("b", () -> true)
+                .decimalValue("c", () -> 1.5, 1);
+    }
+
+    @Test
+    void testSchemaTelemetry() {
+        PayloadTemplate template = values().buildSchemaMessage(true);
+        ByteBuf buf = Unpooled.buffer();
+        template.write(buf, new MessageContext(TS));
+
+        ByteBuf expected = Unpooled.buffer();
+        expected.writeByte(0x09).writeLongLE(TS);
+        expected.writeByte(0x12).writeByte(16);
+        expected.writeByte(0x0D).writeIntLE(5);
+        expected.writeByte(0x10).writeByte(1);
+        expected.writeByte(0x19).writeDoubleLE(1.5);
+        assertThat(ByteBufUtil.hexDump(buf)).isEqualTo(ByteBufUtil.hexDump(expected));
+        assertThat(template.getDatapoints()).isEqualTo(3);
+    }
+
+    @Test
+    void testSchema() {
+        assertThat(values().toSchema("test", "Telemetry", true)).isEqualTo("""
+                syntax ="proto3";
+                package test;
+
+                message Telemetry {
+                  optional sfixed64 ts = 1;
+                  Values values = 2;
+
+                  message Values {
+                    optional sfixed32 a = 1;
+                    optional bool b = 2;
+                    optional double c = 3;
+                  }
+                }
+                """);
+    }
+
+    @Test
+    void testRingPatchesTs() {
+        MessageTemplate template = new MessageTemplate(values().buildSchemaMessage(true), false, true, true, 2);
+        ByteBuf buf = Unpooled.buffer();
+        template.write(buf, "DW00000001", TS + 12345);
+
+        assertThat(buf.getLongLE(1)).isEqualTo(TS + 12345);
+        assertThat(buf.getIntLE(12)).isEqualTo(5);
+    }
+
+    @Test
+    void testGatewayAttributes() {
+        PayloadTemplate body = new ProtoPayloadBuilder().intValue("a", 5).buildKeyValues(false);
+        MessageTemplate template = new MessageTemplate(body, true, false, true, 0);
+        ByteBuf buf = Unpooled.buffer();
+        template.write(buf, "d", TS);
+
+        // GatewayAttributesMsg {msg: AttributesMsg {deviceName: "d", msg: PostAttributeMsg {kv: {key: "a", type: LONG_V, long_v: 5}}}}
+        assertThat(ByteBufUtil.hexDump(buf)).isEqualTo("0a0e" + "0a0164" + "1209" + "0a07" + "0a0161" + "1001" + "2005");
+    }
+
+    @Test
+    void testGatewayTelemetryTsIsPatched() {
+        PayloadTemplate body = new ProtoPayloadBuilder().booleanValue("b", () -> false).buildKeyValues(true);
+        MessageTemplate template = new MessageTemplate(body, true, true, true, 2);
+        ByteBuf buf = Unpooled.buffer();
+        template.write(buf, "d", TS + 1);
+
+        ByteBuf tsKvList = Unpooled.buffer();
+        tsKvList.writeByte(0x08);
+        ProtoWriter.writeVarint(tsKvList, TS + 1);
+        tsKvList.writeBytes(ByteBufUtil.decodeHexDump("1207" + "0a0162" + "1000" + "1800"));
+        String postTelemetry = "0a" + String.format("%02x", tsKvList.readableBytes()) + ByteBufUtil.hexDump(tsKvList);
+        String telemetryMsg = "0a0164" + "1a" + String.format("%02x", postTelemetry.length() / 2) + postTelemetry;
+        assertThat(ByteBufUtil.hexDump(buf)).isEqualTo("0a" + String.format("%02x", telemetryMsg.length() / 2) + telemetryMsg);
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PacedRateSchedulerTest {
+
+    PacedRateScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new PacedRateScheduler();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void testMessagesAreSpreadEvenly() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        scheduler.start(RateFunction.constant(100), 2, listener).get(5, TimeUnit.SECONDS);
+
+        assertThat(listener.events).startsWith("start 1").endsWith("end 2");
+        assertThat(listener.events).containsSubsequence("end 1", "start 2");
+        assertThat(listener.intendedNanos).hasSize(200);
+        for (int i = 1; i < listener.intendedNanos.size(); i++) {
+            long interval = listener.intendedNanos.get(i) - listener.intendedNanos.get(i - 1);
+            assertThat(interval).isBetween(TimeUnit.MILLISECONDS.toNanos(10) - 1, TimeUnit.MILLISECONDS.toNanos(10) + 1);
+        }
+    }
+
+    @Test
+    void testIterationsWithZeroRateAreStillReported() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        RateFunction rate = elapsedNanos -> elapsedNanos < RateScheduler.NANOS_PER_SECOND ? 10 : 0;
+        scheduler.start(rate, 3, listener).get(5, TimeUnit.SECONDS);
+
+        assertThat(listener.intendedNanos).hasSize(10);
+        assertThat(listener.events).containsExactly("start 1", "end 1", "start 2", "end 2", "start 3", "end 3");
+    }
+
+    private static class RecordingListener implements RateListener {
+
+        final List<String> events = new ArrayList<>();
+        final List<Long> intendedNanos = new ArrayList<>();
+
+        @Override
+        public void onIterationStart(int iteration) {
+            events.add("start " + iteration);
+        }
+
+        @Override
+        public void onMessage(int iteration, long msgIdx, long intendedNanos) {
+            this.intendedNanos.add(intendedNanos);
+        }
+
+        @Override
+        public void onIterationEnd(int iteration) {
+            events.add("end " + iteration);
+        }
+    }
+
+}
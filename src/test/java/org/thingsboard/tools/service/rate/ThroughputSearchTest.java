@@ -0,0 +1,72 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThroughputSearchTest {
+
+    @Test
+    void testSearchRaisesThenBisects() {
+        ThroughputSearch search = new ThroughputSearch(1000, 2, 100_000, 5);
+        List<Long> trials = run(search, 5300);
+
+        // 1000, 2000, 4000 pass, 8000 fails, then bisection between 4000 and 8000
+        assertThat(trials).startsWith(1000L, 2000L, 4000L, 8000L, 6000L, 5000L);
+        assertThat(search.getSustainableRate()).isBetween(5000L, 5300L);
+        assertThat(search.getNextRate()).isEqualTo(-1);
+    }
+
+    @Test
+    void testSearchStopsAtMaxRate() {
+        ThroughputSearch search = new ThroughputSearch(1000, 3, 5000, 5);
+        List<Long> trials = run(search, Long.MAX_VALUE);
+
+        assertThat(trials).containsExactly(1000L, 3000L, 5000L);
+        assertThat(search.getSustainableRate()).isEqualTo(5000);
+    }
+
+    @Test
+    void testFirstTrialFailureBisectsDown() {
+        ThroughputSearch search = new ThroughputSearch(1000, 2, 100_000, 10);
+        run(search, 300);
+
+        assertThat(search.getSustainableRate()).isBetween(250L, 300L);
+    }
+
+    @Test
+    void testInvalidParametersAreRejected() {
+        assertThatThrownBy(() -> new ThroughputSearch(1000, 1, 100_000, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> run(ThroughputSearch search, long capacity) {
+        List<Long> trials = new ArrayList<>();
+        long rate;
+        while ((rate = search.getNextRate()) > 0) {
+            trials.add(rate);
+            search.onTrial(rate, rate <= capacity);
+            assertThat(trials).hasSizeLessThan(50);
+        }
+        return trials;
+    }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.rate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkloadProfileTest {
+
+    @Test
+    void testStagesFollowEachOther() {
+        WorkloadStage ramp = stage(WorkloadStageType.RAMP, 10, 100);
+        WorkloadStage step = stage(WorkloadStageType.STEP, 20, 500);
+        step.setSteps(4);
+        WorkloadStage hold = stage(WorkloadStageType.HOLD, 5, 50);
+        WorkloadProfile profile = new WorkloadProfile("test", List.of(ramp, step, hold));
+
+        assertThat(profile.getDurationInSec()).isEqualTo(35);
+        assertThat(profile.getRate(seconds(0))).isEqualTo(0);
+        assertThat(profile.getRate(seconds(5))).isEqualTo(50);
+        // the ladder starts from the end rate of the ramp: 200, 300, 400, 500
+        assertThat(profile.getRate(seconds(10))).isEqualTo(200);
+        assertThat(profile.getRate(seconds(16))).isEqualTo(300);
+        assertThat(profile.getRate(seconds(29))).isEqualTo(500);
+        assertThat(profile.getRate(seconds(30))).isEqualTo(50);
+        assertThat(profile.getStageIndex(seconds(9))).isEqualTo(0);
+        assertThat(profile.getStageIndex(seconds(10))).isEqualTo(1);
+        assertThat(profile.getStageIndex(seconds(34))).isEqualTo(2);
+        assertThat(profile.getAverageRate(1)).isEqualTo(350);
+        assertThat(ramp.getName()).isEqualTo("stage-1");
+    }
+
+    @Test
+    void testSpikeIsCentered() {
+        WorkloadStage spike = stage(WorkloadStageType.SPIKE, 30, 1000);
+        spike.setFrom(100.0);
+        spike.setSpikeDuration(10);
+        WorkloadProfile profile = new WorkloadProfile("spike", List.of(spike));
+
+        assertThat(profile.getRate(seconds(9))).isEqualTo(100);
+        assertThat(profile.getRate(seconds(10))).isEqualTo(1000);
+        assertThat(profile.getRate(seconds(19))).isEqualTo(1000);
+        assertThat(profile.getRate(seconds(20))).isEqualTo(100);
+    }
+
+    @Test
+    void testProfileIsLoadedFromClasspath() throws Exception {
+        WorkloadProfile profile = WorkloadProfile.load("workload/knee-step.yml");
+
+        assertThat(profile.getName()).isEqualTo("knee-step");
+        assertThat(profile.getStages()).extracting(WorkloadStage::getType)
+                .containsExactly(WorkloadStageType.RAMP, WorkloadStageType.STEP);
+        assertThat(profile.getDurationInSec()).isEqualTo(660);
+    }
+
+    @Test
+    void testInvalidStageIsRejected() {
+        assertThatThrownBy(() -> new WorkloadProfile("invalid", List.of(stage(WorkloadStageType.HOLD, 0, 100))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static WorkloadStage stage(WorkloadStageType type, int duration, double rate) {
+        WorkloadStage stage = new WorkloadStage();
+        stage.setType(type);
+        stage.setDuration(duration);
+        stage.setRate(rate);
+        return stage;
+    }
+
+    private static long seconds(double seconds) {
+        return (long) (seconds * RateScheduler.NANOS_PER_SECOND);
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.tools.service.shared.DeviceBulkImportService.IndexRange;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceBulkImportServiceTest {
+
+    @Test
+    void testDevicesCsv() {
+        String csv = DeviceBulkImportService.toCsv(1, 3, false, true, "smart_meter", idx -> "DW0000000" + idx);
+
+        assertThat(csv).isEqualTo("DW00000001,smart_meter,DW00000001\nDW00000002,smart_meter,DW00000002\n");
+    }
+
+    @Test
+    void testGatewaysCsvWithoutCredentials() {
+        String csv = DeviceBulkImportService.toCsv(0, 1, true, false, "smart_meter", idx -> "GW0000000" + idx);
+
+        assertThat(csv).isEqualTo("GW00000000,smart_meter,true\n");
+    }
+
+    @Test
+    void testFailedRangesAreSortedByStartIndex() {
+        List<IndexRange> sorted = DeviceBulkImportService.sortByStart(
+                List.of(new IndexRange(10000, 11000), new IndexRange(9000, 10000)));
+
+        assertThat(sorted).containsExactly(new IndexRange(9000, 10000), new IndexRange(10000, 11000));
+        assertThat(sorted.toString()).isEqualTo("[[9000, 10000), [10000, 11000)]");
+    }
+
+}
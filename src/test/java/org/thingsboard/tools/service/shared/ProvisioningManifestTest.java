@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProvisioningManifestTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecordsSurviveReopen() throws Exception {
+        Path file = dir.resolve("devices-10-20.manifest");
+        UUID deviceId = UUID.randomUUID();
+        try (ProvisioningManifest manifest = ProvisioningManifest.open(file, 10, 20)) {
+            assertThat(manifest.getDeviceId(15)).isNull();
+            manifest.put(15, deviceId, "DW00000015");
+            manifest.put(16, UUID.randomUUID(), null);
+        }
+
+        try (ProvisioningManifest manifest = ProvisioningManifest.open(file, 10, 20)) {
+            assertThat(manifest.getDeviceId(15)).isEqualTo(deviceId);
+            assertThat(manifest.getToken(15)).isEqualTo("DW00000015");
+            assertThat(manifest.getToken(16)).isNull();
+            assertThat(manifest.getDeviceId(10)).isNull();
+
+            manifest.remove(15);
+            assertThat(manifest.getDeviceId(15)).isNull();
+        }
+    }
+
+    @Test
+    void testOtherRangeResetsManifest() throws Exception {
+        Path file = dir.resolve("devices.manifest");
+        try (ProvisioningManifest manifest = ProvisioningManifest.open(file, 0, 10)) {
+            manifest.put(5, UUID.randomUUID(), "DW00000005");
+        }
+
+        try (ProvisioningManifest manifest = ProvisioningManifest.open(file, 0, 20)) {
+            assertThat(manifest.getDeviceId(5)).isNull();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestIterationTest {
+
+    @Test
+    void testAlarmReservationsDoNotExceedLimit() throws InterruptedException {
+        TestIteration iteration = new TestIteration(1, new TestRunStats(), it -> {});
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(() -> {
+                    if (iteration.tryReserveAlarm(10)) {
+                        reserved.incrementAndGet();
+                    }
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(reserved.get()).isEqualTo(10);
+    }
+
+    @Test
+    void testCancelledReservationCanBeReservedAgain() {
+        TestIteration iteration = new TestIteration(1, new TestRunStats(), it -> {});
+
+        assertThat(iteration.tryReserveAlarm(1)).isTrue();
+        assertThat(iteration.tryReserveAlarm(1)).isFalse();
+
+        iteration.cancelAlarmReservation();
+        assertThat(iteration.tryReserveAlarm(1)).isTrue();
+    }
+
+    @Test
+    void testDroppedMessageCountsAsSkipped() {
+        TestRunStats runStats = new TestRunStats();
+        AtomicInteger completed = new AtomicInteger();
+        TestIteration iteration = new TestIteration(1, runStats, it -> completed.incrementAndGet());
+
+        iteration.onSent();
+        iteration.onDropped();
+        iteration.close();
+
+        assertThat(runStats.getOffered().get()).isZero();
+        assertThat(runStats.getSkipped().get()).isEqualTo(1);
+        assertThat(completed.get()).isEqualTo(1);
+    }
+
+}
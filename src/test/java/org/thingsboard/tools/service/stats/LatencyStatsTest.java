@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyStatsTest {
+
+    @Test
+    void testCorrectedLatencyIsKeptSeparately() {
+        LatencyStats stats = new LatencyStats("PUBACK", "us");
+        stats.record(100);
+        stats.recordCorrected(100);
+        stats.record(120);
+        // a stalled send: the message left late, but was acknowledged as fast as the others
+        stats.recordCorrected(50_000);
+
+        Histogram interval = stats.nextInterval();
+
+        assertThat(interval.getTotalCount()).isEqualTo(2);
+        assertThat(stats.getTotal().getMaxValue()).isLessThan(200);
+        assertThat(stats.getCorrectedTotal().getTotalCount()).isEqualTo(2);
+        assertThat(stats.getCorrectedTotal().getMaxValue()).isGreaterThanOrEqualTo(49_950);
+    }
+
+    @Test
+    void testCorrectedTotalIsReportedOnlyWhenRecorded() {
+        LatencyStats stats = new LatencyStats("CONNACK", "ms");
+        stats.record(5);
+        stats.nextInterval();
+
+        assertThat(stats.formatTotal()).startsWith("CONNACK latency (ms) count: 1").doesNotContain("corrected");
+
+        stats.recordCorrected(7);
+        stats.nextInterval();
+
+        assertThat(stats.formatTotal()).contains("CONNACK corrected latency (ms) count: 1");
+    }
+
+    @Test
+    void testOnlyCorrectedTotalIsReportedWhenNothingElseRecorded() {
+        LatencyStats stats = new LatencyStats("End-to-end", "ms");
+        stats.recordCorrected(40);
+        stats.nextInterval();
+
+        assertThat(stats.formatTotal()).isEqualTo("End-to-end corrected latency (ms) count: 1, p50: 40, p99: 40, p99.9: 40, max: 40");
+    }
+
+    @Test
+    void testMissingMessagesCountAsInfinitelyLate() {
+        Histogram histogram = new Histogram(3);
+        for (int i = 1; i <= 98; i++) {
+            histogram.recordValue(i);
+        }
+
+        assertThat(LatencyStats.getValueAtPercentile(histogram, 99, 0)).isEqualTo(98);
+        assertThat(LatencyStats.getValueAtPercentile(histogram, 99, 2)).isEqualTo(Long.MAX_VALUE);
+        assertThat(LatencyStats.getValueAtPercentile(histogram, 50, 2)).isBetween(49L, 51L);
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegressionCheckTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final RegressionCheck check = new RegressionCheck(5, 20, 1, List.of("p50", "p99"));
+
+    @Test
+    void testRunWithinTolerancesPasses() throws Exception {
+        JsonNode baseline = summary(1000, 0, 100, 1000, null);
+        JsonNode current = summary(960, 5, 110, 1190, null);
+
+        assertThat(check.compare(baseline, current)).isEmpty();
+    }
+
+    @Test
+    void testThroughputAndFailureRegressions() throws Exception {
+        JsonNode baseline = summary(1000, 0, 100, 1000, null);
+        JsonNode current = summary(900, 2000, 100, 1000, null);
+
+        List<String> regressions = check.compare(baseline, current);
+
+        assertThat(regressions).hasSize(2);
+        assertThat(regressions.get(0)).contains("achieved rate 900");
+        assertThat(regressions.get(1)).contains("failed messages");
+    }
+
+    @Test
+    void testSkippedMessagesCountAsFailures() throws Exception {
+        JsonNode baseline = summary(1000, 0, 0, 100, 1000, null);
+        // nothing failed, but the saturated in-flight window skipped 6000 of the 66000 offered messages
+        JsonNode current = summary(1000, 0, 6000, 100, 1000, null);
+
+        List<String> regressions = check.compare(baseline, current);
+
+        assertThat(regressions).hasSize(1);
+        assertThat(regressions.get(0)).contains("failed messages 9.09%");
+    }
+
+    @Test
+    void testCorrectedLatencyIsComparedWhenPresent() throws Exception {
+        JsonNode baseline = summary(1000, 0, 100, 1000, 1500L);
+        // uncorrected p99 is unchanged, the corrected one shows the stall
+        JsonNode current = summary(1000, 0, 100, 1000, 5000L);
+
+        List<String> regressions = check.compare(baseline, current);
+
+        assertThat(regressions).hasSize(1);
+        assertThat(regressions.get(0)).contains("PUBACK corrected p99 latency 5000 us");
+    }
+
+    private static JsonNode summary(long rate, long failed, long p50, long p99, Long correctedP99) throws Exception {
+        return summary(rate, failed, 0, p50, p99, correctedP99);
+    }
+
+    private static JsonNode summary(long rate, long failed, long skipped, long p50, long p99, Long correctedP99) throws Exception {
+        String corrected = correctedP99 != null ? ",\"corrected\":{\"p50\":" + p50 + ",\"p99\":" + correctedP99 + "}" : "";
+        return mapper.readTree("{\"totals\":{\"achievedRate\":" + rate + ",\"sent\":" + rate * 60 + ",\"failed\":" + failed
+                + ",\"skipped\":" + skipped + "},"
+                + "\"latency\":[{\"name\":\"PUBACK\",\"unit\":\"us\",\"uncorrected\":{\"p50\":" + p50 + ",\"p99\":" + p99 + "}"
+                + corrected + "}]}");
+    }
+
+}
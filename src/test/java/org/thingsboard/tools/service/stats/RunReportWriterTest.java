@@ -0,0 +1,43 @@
+/**
+ * Copyright © 2016-2026 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.tools.service.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunReportWriterTest {
+
+    @Test
+    void testOnlyTestAndClientSettingsAreReported() {
+        assertThat(RunReportWriter.isReported("test.mps")).isTrue();
+        assertThat(RunReportWriter.isReported("device.provisioning.mode")).isTrue();
+        assertThat(RunReportWriter.isReported("rest.executor.mode")).isTrue();
+        assertThat(RunReportWriter.isReported("rest.url")).isFalse();
+        assertThat(RunReportWriter.isReported("rest.password")).isFalse();
+        assertThat(RunReportWriter.isReported("lwm2m.security.server_key_store_pwd")).isFalse();
+    }
+
+    @Test
+    void testSecretsAreMasked() {
+        assertThat(RunReportWriter.isSecret("mqtt.ssl.key_store_password")).isTrue();
+        assertThat(RunReportWriter.isSecret("lwm2m.client_no_trust_key_store_pwd")).isTrue();
+        assertThat(RunReportWriter.isSecret("device.accessToken")).isTrue();
+        assertThat(RunReportWriter.isSecret("mqtt.credentials")).isTrue();
+        assertThat(RunReportWriter.isSecret("mqtt.ssl.key_store")).isFalse();
+    }
+
+}